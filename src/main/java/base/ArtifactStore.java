@@ -0,0 +1,265 @@
+package base;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPOutputStream;
+
+import org.apache.commons.io.FileUtils;
+
+/**
+ * Failure artifacts (screenshots, page sources, videos) under target/, written
+ * off the scenario thread. Screenshots and page sources are named by the
+ * SHA-256 of their content, so the same screen captured twice is stored once;
+ * page sources are gzipped. Only the newest artifactMaxFiles files are kept.
+ *
+ * <pre>
+ * target/artifacts/screenshots/&lt;hash&gt;.png
+ * target/artifacts/pages/&lt;hash&gt;.html.gz
+ * target/artifacts/videos/&lt;platform_device&gt;/&lt;date&gt;/&lt;scenario&gt;.mp4
+ * </pre>
+ *
+ * {@link #link(String, File)} gives the HTML the Cucumber report shows for an
+ * artifact, relative to the report directory.
+ */
+public final class ArtifactStore {
+
+	// html plugin directory of runner.TestRunner
+	private static final File REPORT_DIR = new File("target/site/cucumber-pretty");
+
+	// Artifacts written at once
+	private static final int WRITERS = 2;
+
+	// Artifacts waiting for a writer, beyond which the scenario thread writes its own
+	private static final int MAX_PENDING = 16;
+
+	private static final ThreadPoolExecutor EXECUTOR = new ThreadPoolExecutor(WRITERS, WRITERS, 30,
+			TimeUnit.SECONDS, new ArrayBlockingQueue<Runnable>(MAX_PENDING), new ThreadFactory() {
+
+				private final AtomicInteger count = new AtomicInteger();
+
+				@Override
+				public Thread newThread(Runnable runnable) {
+					Thread thread = new Thread(runnable, "artifact-writer-" + count.incrementAndGet());
+					thread.setDaemon(true);
+					return thread;
+				}
+			}, new ThreadPoolExecutor.CallerRunsPolicy());
+
+	static {
+		EXECUTOR.allowCoreThreadTimeOut(true);
+	}
+
+	// Writes submitted and not finished, a worker about to start its first one included
+	private static final AtomicInteger UNWRITTEN = new AtomicInteger();
+
+	// Content-named files written or being written in this run
+	private static final Set<String> STORED = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+
+	private static volatile File root = new File("target/artifacts");
+
+	private static volatile int maxFiles = 1000;
+
+	private ArtifactStore() {
+	}
+
+	/**
+	 * @param directory root of the store (artifactDir in config.properties)
+	 * @param max       files kept (artifactMaxFiles), the oldest are deleted
+	 *                  beyond it
+	 */
+	public static void configure(File directory, int max) {
+		root = directory;
+		maxFiles = max;
+	}
+
+	public static File getRoot() {
+		return root;
+	}
+
+	/**
+	 * To store a screenshot, once per distinct image
+	 *
+	 * @param png image
+	 * @return file it is, or is being, written to
+	 */
+	public static File storeScreenshot(byte[] png) {
+		final File target = new File(new File(root, "screenshots"), sha256(png) + ".png");
+		if (STORED.add(target.getPath()) && !keep(target)) {
+			execute(new Runnable() {
+
+				@Override
+				public void run() {
+					try {
+						write(target, png, false);
+					} catch (IOException e) {
+						System.out.println("Screenshot " + target + " not written: " + e);
+					}
+				}
+			});
+		}
+		return target;
+	}
+
+	/**
+	 * To store a page source gzipped, once per distinct page
+	 *
+	 * @param source page source
+	 * @return file it is, or is being, written to
+	 */
+	public static File storePageSource(String source) {
+		final byte[] content = source.getBytes(StandardCharsets.UTF_8);
+		final File target = new File(new File(root, "pages"), sha256(content) + ".html.gz");
+		if (STORED.add(target.getPath()) && !keep(target)) {
+			execute(new Runnable() {
+
+				@Override
+				public void run() {
+					try {
+						write(target, content, true);
+					} catch (IOException e) {
+						System.out.println("Page source " + target + " not written: " + e);
+					}
+				}
+			});
+		}
+		return target;
+	}
+
+	// An artifact of an earlier run is reused, and counts as new for the retention
+	private static boolean keep(File target) {
+		return target.isFile() && target.setLastModified(System.currentTimeMillis());
+	}
+
+	/**
+	 * To get the file of a video
+	 *
+	 * @param device   platform and device of the session
+	 * @param date     start of the recording
+	 * @param scenario scenario id, as a file name
+	 */
+	public static File videoFile(String device, String date, String scenario) {
+		return new File(new File(new File(new File(root, "videos"), device), date), scenario + ".mp4");
+	}
+
+	/**
+	 * To run a write on the writer threads, or on the calling thread when too
+	 * many are waiting
+	 */
+	public static void execute(Runnable write) {
+		UNWRITTEN.incrementAndGet();
+		EXECUTOR.execute(new Runnable() {
+
+			@Override
+			public void run() {
+				try {
+					write.run();
+				} finally {
+					UNWRITTEN.decrementAndGet();
+				}
+			}
+		});
+	}
+
+	// Through a .part file renamed once complete, so a partial file is never seen
+	private static void write(File target, byte[] content, boolean gzip) throws IOException {
+		File directory = target.getAbsoluteFile().getParentFile();
+		if (!directory.isDirectory() && !directory.mkdirs() && !directory.isDirectory()) {
+			throw new IOException("Cannot create " + directory);
+		}
+		File part = new File(directory, target.getName() + ".part");
+		try (OutputStream out = gzip ? new GZIPOutputStream(Files.newOutputStream(part.toPath()))
+				: Files.newOutputStream(part.toPath())) {
+			out.write(content);
+		}
+		Files.move(part.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+	}
+
+	private static String sha256(byte[] content) {
+		try {
+			StringBuilder hex = new StringBuilder();
+			for (byte b : MessageDigest.getInstance("SHA-256").digest(content)) {
+				hex.append(String.format("%02x", b));
+			}
+			return hex.toString();
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * To get the HTML of a link to an artifact, for Scenario.write
+	 *
+	 * @param label    text of the link
+	 * @param artifact file in the store
+	 */
+	public static String link(String label, File artifact) {
+		String href = REPORT_DIR.getAbsoluteFile().toPath().relativize(artifact.getAbsoluteFile().toPath())
+				.toString().replace(File.separatorChar, '/');
+		return "<a href=\"" + href + "\" target=\"_blank\">" + label + "</a> " + href;
+	}
+
+	/**
+	 * To wait for the artifacts still being written, at the end of the run
+	 *
+	 * @param timeoutSeconds longest wait
+	 * @return false when some were not written in time
+	 */
+	public static boolean awaitWritten(long timeoutSeconds) {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(timeoutSeconds);
+		while (UNWRITTEN.get() > 0) {
+			if (System.nanoTime() > deadline) {
+				return false;
+			}
+			try {
+				Thread.sleep(100);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * To delete the oldest artifacts beyond artifactMaxFiles, earlier runs
+	 * included
+	 *
+	 * @return number of files deleted
+	 */
+	public static int applyRetention() {
+		if (!root.isDirectory()) {
+			return 0;
+		}
+		Collection<File> files = FileUtils.listFiles(root, null, true);
+		if (files.size() <= maxFiles) {
+			return 0;
+		}
+		List<File> oldestFirst = new ArrayList<File>(files);
+		Collections.sort(oldestFirst, (a, b) -> Long.compare(a.lastModified(), b.lastModified()));
+		int deleted = 0;
+		for (File file : oldestFirst.subList(0, files.size() - maxFiles)) {
+			if (file.delete()) {
+				deleted++;
+			}
+		}
+		return deleted;
+	}
+
+}
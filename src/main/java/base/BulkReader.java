@@ -0,0 +1,163 @@
+package base;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.NoSuchElementException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.support.ui.Select;
+
+/**
+ * Reads the texts or attributes of every element of a locator, and selects
+ * options of a native select, in one script call instead of a driver call per
+ * element. In a native context, where scripts do not run, it falls back to a
+ * driver call per element.
+ */
+public final class BulkReader {
+
+	// visibleText as getText() returns it (empty when hidden, white space
+	// collapsed), nodes of an XPath in document order
+	private static final String HELPERS = "var visibleText = function(node) {"
+			+ "  var style = window.getComputedStyle(node);"
+			+ "  if (node.getClientRects().length === 0 || style.visibility === 'hidden' || style.display === 'none') {"
+			+ "    return '';"
+			+ "  }"
+			+ "  var text = node.innerText !== undefined ? node.innerText : node.textContent;"
+			+ "  return text ? text.replace(/\\s+/g, ' ').trim() : '';"
+			+ "};"
+			+ "var nodes = function(xpath) {"
+			+ "  var found = document.evaluate(xpath, document, null, XPathResult.ORDERED_NODE_SNAPSHOT_TYPE, null), list = [];"
+			+ "  for (var i = 0; i < found.snapshotLength; i++) {"
+			+ "    list.push(found.snapshotItem(i));"
+			+ "  }"
+			+ "  return list;"
+			+ "};";
+
+	private static final String TEXTS_SCRIPT = HELPERS
+			+ "var xpaths = arguments[0], texts = [];"
+			+ "for (var i = 0; i < xpaths.length; i++) {"
+			+ "  var list = nodes(xpaths[i]);"
+			+ "  for (var j = 0; j < list.length; j++) {"
+			+ "    texts.push(visibleText(list[j]));"
+			+ "  }"
+			+ "}"
+			+ "return texts;";
+
+	// Property first, as getAttribute() does for value, checked and the like
+	private static final String ATTRIBUTES_SCRIPT = HELPERS
+			+ "var list = nodes(arguments[0]), name = arguments[1], values = [];"
+			+ "for (var i = 0; i < list.length; i++) {"
+			+ "  var value = list[i][name];"
+			+ "  if (value === undefined || value === null || typeof value === 'object' || typeof value === 'function') {"
+			+ "    value = list[i].getAttribute(name);"
+			+ "  }"
+			+ "  values.push(value === null ? null : String(value));"
+			+ "}"
+			+ "return values;";
+
+	// Selects the first option whose text matches one of the texts, in order, and
+	// raises the events a user selection raises, so React sees the new value
+	private static final String SELECT_SCRIPT = "var select = arguments[0], wanted = arguments[1];"
+			+ "var normalize = function(text) { return (text || '').replace(/\\s+/g, ' ').trim(); };"
+			+ "for (var i = 0; i < wanted.length; i++) {"
+			+ "  for (var j = 0; j < select.options.length; j++) {"
+			+ "    var option = select.options[j];"
+			+ "    if (normalize(option.text) === normalize(wanted[i])) {"
+			+ "      if (!option.selected) {"
+			+ "        var setter = Object.getOwnPropertyDescriptor(HTMLSelectElement.prototype, 'selectedIndex');"
+			+ "        if (setter && setter.set) { setter.set.call(select, j); } else { select.selectedIndex = j; }"
+			+ "        select.dispatchEvent(new Event('input', { bubbles: true }));"
+			+ "        select.dispatchEvent(new Event('change', { bubbles: true }));"
+			+ "      }"
+			+ "      return option.text;"
+			+ "    }"
+			+ "  }"
+			+ "}"
+			+ "return null;";
+
+	private BulkReader() {
+	}
+
+	/**
+	 * To read the texts of every element of the locators
+	 *
+	 * @param driver session of the scenario
+	 * @param xpaths locators, read in order
+	 * @return texts, empty for hidden elements
+	 */
+	@SuppressWarnings("unchecked")
+	public static List<String> texts(WebDriver driver, List<String> xpaths) {
+		if (scripted(driver)) {
+			return new ArrayList<String>(
+					(List<String>) ((JavascriptExecutor) driver).executeScript(TEXTS_SCRIPT, xpaths));
+		}
+		List<String> texts = new ArrayList<String>();
+		for (String xpath : xpaths) {
+			for (WebElement element : WaitPolicy.findNow(driver, By.xpath(xpath))) {
+				texts.add(element.getText());
+			}
+		}
+		return texts;
+	}
+
+	/**
+	 * To read an attribute of every element of the locator
+	 *
+	 * @param driver session of the scenario
+	 * @param xpath  locator
+	 * @param name   attribute or property, e.g. value or src
+	 * @return values, null where the element has no such attribute
+	 */
+	@SuppressWarnings("unchecked")
+	public static List<String> attributes(WebDriver driver, String xpath, String name) {
+		if (scripted(driver)) {
+			return new ArrayList<String>(
+					(List<String>) ((JavascriptExecutor) driver).executeScript(ATTRIBUTES_SCRIPT, xpath, name));
+		}
+		List<String> values = new ArrayList<String>();
+		for (WebElement element : WaitPolicy.findNow(driver, By.xpath(xpath))) {
+			values.add(element.getAttribute(name));
+		}
+		return values;
+	}
+
+	/**
+	 * To select the option of a native select by its visible text
+	 *
+	 * @param driver session of the scenario
+	 * @param select the select element
+	 * @param texts  option texts, the first one found is selected
+	 * @return text of the selected option
+	 * @throws NoSuchElementException when the select has none of the texts
+	 */
+	public static String selectByVisibleText(WebDriver driver, WebElement select, String... texts) {
+		if (!scripted(driver)) {
+			Select options = new Select(select);
+			for (String text : texts) {
+				try {
+					options.selectByVisibleText(text);
+					return text;
+				} catch (NoSuchElementException e) {
+					// Try the next text
+				}
+			}
+			throw new NoSuchElementException("Cannot locate option with text: " + Arrays.toString(texts));
+		}
+		Object selected = ((JavascriptExecutor) driver).executeScript(SELECT_SCRIPT, select,
+				Arrays.asList(texts));
+		if (selected == null) {
+			throw new NoSuchElementException("Cannot locate option with text: " + Arrays.toString(texts));
+		}
+		return selected.toString();
+	}
+
+	// Scripts run in a web view or browser, not in a native context
+	private static boolean scripted(WebDriver driver) {
+		return driver instanceof JavascriptExecutor && !DriverContext.isNativeContext();
+	}
+
+}
@@ -0,0 +1,47 @@
+package base;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * An Appium endpoint and the capabilities that pin a session to one device
+ */
+public class Device {
+
+	private final String appiumUrl;
+
+	private final Map<String, Object> capabilities;
+
+	public Device(String appiumUrl, Map<String, Object> capabilities) {
+		this.appiumUrl = appiumUrl;
+		this.capabilities = Collections.unmodifiableMap(capabilities);
+	}
+
+	public String getAppiumUrl() {
+		return appiumUrl;
+	}
+
+	/**
+	 * @return udid capability of the device, null when the endpoint serves a
+	 *         single device
+	 */
+	public String getUdid() {
+		Object udid = capabilities.get("udid");
+		return udid != null ? udid.toString() : null;
+	}
+
+	/**
+	 * Capabilities such as deviceName, udid or systemPort that override the
+	 * platform capabilities file
+	 */
+	public Map<String, Object> getCapabilities() {
+		return capabilities;
+	}
+
+	@Override
+	public String toString() {
+		Object name = capabilities.get("deviceName");
+		return (name != null ? name : "default device") + " @ " + appiumUrl;
+	}
+
+}
@@ -0,0 +1,164 @@
+package base;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Devices declared in config.properties. Each scenario thread leases one
+ * device for the length of a scenario and gives it back afterwards.
+ *
+ * <pre>
+ * device.1.url=http://127.0.0.1:4723/wd/hub
+ * device.1.deviceName=Pixel 3a XL
+ * device.1.udid=emulator-5554
+ * device.1.systemPort=8201
+ * </pre>
+ *
+ * When no device is declared, URL_Capability is used as a single device, or
+ * with platformName=HtmlUnit, htmlUnitSessions headless browsers (one per
+ * processor by default) run side by side in the JVM.
+ *
+ * Devices whose Appium endpoint is marked down by {@link EndpointHealth} are
+ * set aside, so the remaining scenarios go to the other devices.
+ */
+public final class DevicePool {
+
+	private static final BlockingQueue<Device> FREE = new LinkedBlockingQueue<Device>();
+
+	private static List<Device> devices;
+
+	// Free devices whose endpoint is down, back in FREE once it is due for a retry
+	private static final List<Device> PARKED = new ArrayList<Device>();
+
+	private DevicePool() {
+	}
+
+	/**
+	 * To read the devices once for the run
+	 *
+	 * @param config content of config.properties
+	 * @return declared devices
+	 */
+	public static synchronized List<Device> init(Properties config) {
+		if (devices == null) {
+			devices = load(config);
+			FREE.addAll(devices);
+		}
+		return devices;
+	}
+
+	/**
+	 * To read the device list from the configuration
+	 *
+	 * @param config content of config.properties
+	 * @return declared devices, at least one
+	 */
+	public static List<Device> load(Properties config) {
+		List<Device> list = new ArrayList<Device>();
+		for (int i = 1;; i++) {
+			String prefix = "device." + i + ".";
+			String url = config.getProperty(prefix + "url");
+			if (url == null) {
+				break;
+			}
+
+			Map<String, Object> capabilities = new LinkedHashMap<String, Object>();
+			for (String name : config.stringPropertyNames()) {
+				if (name.startsWith(prefix) && !name.equals(prefix + "url")) {
+					String capability = name.substring(prefix.length());
+					capabilities.put(capability, toValue(capability, config.getProperty(name).trim()));
+				}
+			}
+			list.add(new Device(url.trim(), capabilities));
+		}
+
+		if (list.isEmpty() && config.getProperty("platformName", "").toLowerCase().startsWith("htmlunit")) {
+			int sessions = Integer.parseInt(config.getProperty("htmlUnitSessions",
+					String.valueOf(Runtime.getRuntime().availableProcessors())));
+			for (int i = 1; i <= sessions; i++) {
+				Map<String, Object> capabilities = new LinkedHashMap<String, Object>();
+				// A distinct name gives each browser its own slot in the session pool
+				capabilities.put("deviceName", DriverFactory.HTMLUNIT + " " + i);
+				list.add(new Device(config.getProperty("URL_Capability"), capabilities));
+			}
+		} else if (list.isEmpty()) {
+			list.add(new Device(config.getProperty("URL_Capability"), new LinkedHashMap<String, Object>()));
+		}
+		return list;
+	}
+
+	/**
+	 * To take a free device on a healthy endpoint, waiting until one is given
+	 * back when all are busy
+	 *
+	 * @return device, or null when every endpoint is down or the thread is
+	 *         interrupted
+	 */
+	public static Device lease() {
+		try {
+			while (true) {
+				if (!unpark()) {
+					return null;
+				}
+				Device device = FREE.poll(1, TimeUnit.SECONDS);
+				if (device == null) {
+					continue;
+				}
+				if (EndpointHealth.isAvailable(device.getAppiumUrl(), device.getUdid())) {
+					return device;
+				}
+				synchronized (DevicePool.class) {
+					PARKED.add(device);
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return null;
+		}
+	}
+
+	/**
+	 * To put parked devices back once their endpoint may be tried again
+	 *
+	 * @return false when no device has a healthy endpoint
+	 */
+	private static synchronized boolean unpark() {
+		for (int i = PARKED.size() - 1; i >= 0; i--) {
+			if (EndpointHealth.isAvailable(PARKED.get(i).getAppiumUrl(), PARKED.get(i).getUdid())) {
+				FREE.offer(PARKED.remove(i));
+			}
+		}
+		if (devices == null) {
+			return false;
+		}
+		for (Device device : devices) {
+			if (EndpointHealth.isAvailable(device.getAppiumUrl(), device.getUdid())) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	public static void release(Device device) {
+		if (device != null) {
+			FREE.offer(device);
+		}
+	}
+
+	// Appium expects ports and timeouts as numbers, udids stay text
+	private static Object toValue(String capability, String value) {
+		if ((capability.endsWith("Port") || capability.endsWith("Timeout")) && value.matches("\\d{1,9}")) {
+			return Integer.valueOf(value);
+		} else if (value.equalsIgnoreCase("true") || value.equalsIgnoreCase("false")) {
+			return Boolean.valueOf(value);
+		}
+		return value;
+	}
+
+}
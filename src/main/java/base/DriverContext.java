@@ -0,0 +1,78 @@
+package base;
+
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.support.ui.WebDriverWait;
+
+
+/**
+ * Holds the driver and default wait of the scenario running on the current
+ * thread, so that scenarios can be executed in parallel.
+ */
+public final class DriverContext {
+
+	private static final ThreadLocal<WebDriver> DRIVER = new ThreadLocal<WebDriver>();
+
+	private static final ThreadLocal<WebDriverWait> WAIT = new ThreadLocal<WebDriverWait>();
+
+	// True while the session is switched to the native app, where CSS does not apply
+	private static final ThreadLocal<Boolean> NATIVE_CONTEXT = new ThreadLocal<Boolean>();
+
+	private DriverContext() {
+	}
+
+	/**
+	 * To get the driver of the current thread
+	 *
+	 * @return driver, or null when no session is bound to the thread
+	 */
+	public static WebDriver getDriver() {
+		return DRIVER.get();
+	}
+
+	/**
+	 * To bind a driver to the current thread
+	 *
+	 * @param driver session created for the scenario
+	 */
+	public static void setDriver(WebDriver driver) {
+		DRIVER.set(driver);
+		WAIT.set(driver != null ? new TimedWait(driver, 30) : null);
+		NATIVE_CONTEXT.remove();
+		ElementCache.clear();
+		FormSchema.clear();
+	}
+
+	/**
+	 * To get the default wait of the current thread
+	 */
+	public static WebDriverWait getWait() {
+		return WAIT.get();
+	}
+
+	public static void setWait(WebDriverWait wait) {
+		WAIT.set(wait);
+	}
+
+	/**
+	 * To know if the session of the current thread is in a native context
+	 */
+	public static boolean isNativeContext() {
+		return Boolean.TRUE.equals(NATIVE_CONTEXT.get());
+	}
+
+	public static void setNativeContext(boolean nativeContext) {
+		NATIVE_CONTEXT.set(nativeContext);
+	}
+
+	/**
+	 * To release the driver and wait bound to the current thread
+	 */
+	public static void clear() {
+		DRIVER.remove();
+		WAIT.remove();
+		NATIVE_CONTEXT.remove();
+		ElementCache.clear();
+		FormSchema.clear();
+	}
+
+}
@@ -0,0 +1,155 @@
+package base;
+
+import java.net.URL;
+import java.util.List;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.Capabilities;
+import org.openqa.selenium.Dimension;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.htmlunit.HtmlUnitDriver;
+import org.testng.SkipException;
+
+import com.gargoylesoftware.htmlunit.BrowserVersion;
+import com.gargoylesoftware.htmlunit.SilentCssErrorHandler;
+import com.gargoylesoftware.htmlunit.WebClient;
+
+import io.appium.java_client.MobileElement;
+import io.appium.java_client.android.AndroidDriver;
+import io.appium.java_client.ios.IOSDriver;
+
+/**
+ * Creates sessions for the platform named in the capabilities, on the Appium
+ * server for Android and iOS, or in the JVM for HtmlUnit
+ */
+public final class DriverFactory {
+
+	public static final String HTMLUNIT = "HtmlUnit";
+
+	private DriverFactory() {
+	}
+
+	/**
+	 * To create a new session
+	 *
+	 * @param appiumUrl    URL of the Appium server, not used by HtmlUnit
+	 * @param capabilities capabilities of the session, platformName decides the
+	 *                     driver type
+	 * @return driver, or null when the platform is not supported
+	 * @throws SkipException when the Appium server is down, so the scenario is
+	 *                       skipped rather than waiting on it
+	 */
+	public static WebDriver createDriver(URL appiumUrl, Capabilities capabilities) {
+		String platformName = String.valueOf(capabilities.getCapability("platformName")).toLowerCase();
+		Object udid = capabilities.getCapability("udid");
+		String device = udid != null ? udid.toString() : null;
+
+		if (platformName.startsWith("android")) {
+			checkEndpoint(appiumUrl, device);
+			return new AndroidDriver<MobileElement>(appiumUrl, EndpointHealth.clientFactory(device), capabilities);
+		} else if (platformName.startsWith("ios")) {
+			checkEndpoint(appiumUrl, device);
+			return new IOSDriver<MobileElement>(appiumUrl, EndpointHealth.clientFactory(device), capabilities);
+		} else if (platformName.startsWith(HTMLUNIT.toLowerCase())) {
+			return createHtmlUnitDriver(capabilities);
+		}
+		return null;
+	}
+
+	private static void checkEndpoint(URL appiumUrl, String udid) {
+		if (!EndpointHealth.isAvailable(appiumUrl.toString(), udid)) {
+			throw new SkipException("Appium endpoint is marked down: " + EndpointHealth.key(appiumUrl.toString(), udid));
+		}
+		if (!EndpointHealth.probe(appiumUrl, udid)) {
+			throw new SkipException("Appium endpoint does not answer /status: " + appiumUrl);
+		}
+	}
+
+	/**
+	 * To create a headless browser that presents itself as a phone, using the
+	 * userAgent, viewportWidth and viewportHeight capabilities
+	 */
+	private static WebDriver createHtmlUnitDriver(Capabilities capabilities) {
+		BrowserVersion.BrowserVersionBuilder browserVersion = new BrowserVersion.BrowserVersionBuilder(
+				BrowserVersion.CHROME);
+		Object userAgent = capabilities.getCapability("userAgent");
+		if (userAgent != null) {
+			browserVersion.setUserAgent(userAgent.toString());
+		}
+
+		WebDriver driver = new MobileHtmlUnitDriver(browserVersion.build());
+
+		Object width = capabilities.getCapability("viewportWidth");
+		Object height = capabilities.getCapability("viewportHeight");
+		if (width != null && height != null) {
+			driver.manage().window().setSize(
+					new Dimension(Integer.parseInt(width.toString()), Integer.parseInt(height.toString())));
+		}
+		return driver;
+	}
+
+	/**
+	 * HtmlUnit browser that goes on after script and CSS errors and counts its
+	 * calls as commands for the step metrics. HtmlUnitDriver implements the find
+	 * methods raw where java-client makes them generic, so every subclass
+	 * inherits unchecked conversions that cannot be overridden generically.
+	 */
+	@SuppressWarnings("unchecked")
+	private static final class MobileHtmlUnitDriver extends HtmlUnitDriver {
+
+		MobileHtmlUnitDriver(BrowserVersion browserVersion) {
+			super(browserVersion, true);
+		}
+
+		@Override
+		protected WebClient modifyWebClient(WebClient client) {
+			// Match a real browser, which logs script and CSS errors and goes on
+			client.getOptions().setThrowExceptionOnScriptError(false);
+			client.setCssErrorHandler(new SilentCssErrorHandler());
+			return client;
+		}
+
+		// Driver-level calls are counted as the commands a remote session would send
+		@Override
+		public WebElement findElement(By by) {
+			long start = System.nanoTime();
+			try {
+				return super.findElement(by);
+			} finally {
+				StepMetrics.command(System.nanoTime() - start, true);
+			}
+		}
+
+		@Override
+		public List<WebElement> findElements(By by) {
+			long start = System.nanoTime();
+			try {
+				return super.findElements(by);
+			} finally {
+				StepMetrics.command(System.nanoTime() - start, true);
+			}
+		}
+
+		@Override
+		public Object executeScript(String script, Object... args) {
+			long start = System.nanoTime();
+			try {
+				return super.executeScript(script, args);
+			} finally {
+				StepMetrics.command(System.nanoTime() - start, false);
+			}
+		}
+
+		@Override
+		public void get(String url) {
+			long start = System.nanoTime();
+			try {
+				super.get(url);
+			} finally {
+				StepMetrics.command(System.nanoTime() - start, false);
+			}
+		}
+	}
+
+}
@@ -0,0 +1,294 @@
+package base;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.Dimension;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.OutputType;
+import org.openqa.selenium.Point;
+import org.openqa.selenium.Rectangle;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.WrapsElement;
+import org.openqa.selenium.interactions.Coordinates;
+import org.openqa.selenium.interactions.Locatable;
+
+/**
+ * Element handles of the current page, per scenario thread, so that a page
+ * object calling several helpers on the same locator finds the element once.
+ *
+ * A handle found since the last tap is handed out without a driver call. An
+ * older handle of an XPath or CSS selector is checked with one script call,
+ * which makes sure the locator still leads to the same, displayed node, since a tap may have moved
+ * a class or replaced the node; other handles are looked up again. The cache is dropped when the URL changes (seen by the
+ * {@link SettleEngine} probes) or the session changes. A handle that turns
+ * stale while in use is looked up again once.
+ */
+public final class ElementCache {
+
+	private static final String XPATH_PREFIX = "By.xpath: ";
+
+	private static final String CSS_PREFIX = "By.cssSelector: ";
+
+	// True when the first node of the XPath, or CSS selector, is the element and
+	// it is rendered
+	private static final String SAME_NODE_SCRIPT = "var node = arguments[2] ? document.querySelector(arguments[0])"
+			+ " : document.evaluate(arguments[0], document, null, XPathResult.FIRST_ORDERED_NODE_TYPE, null).singleNodeValue;"
+			+ "return node === arguments[1] && node.getClientRects().length > 0"
+			+ " && window.getComputedStyle(node).visibility !== 'hidden';";
+
+	private static final ThreadLocal<Scope> SCOPE = new ThreadLocal<Scope>() {
+
+		@Override
+		protected Scope initialValue() {
+			return new Scope(null);
+		}
+	};
+
+	private ElementCache() {
+	}
+
+	private static class Scope {
+
+		final String url;
+
+		// Counts the taps on the page, handles found before the last tap are checked again
+		int epoch;
+
+		final Map<String, CachedElement> elements = new HashMap<String, CachedElement>();
+
+		Scope(String url) {
+			this.url = url;
+		}
+	}
+
+	/**
+	 * To drop the handles of the thread, when its session changes
+	 */
+	public static void clear() {
+		SCOPE.remove();
+	}
+
+	/**
+	 * To drop the handles when the page has a new URL
+	 *
+	 * @param url current URL
+	 */
+	static void pageSeen(String url) {
+		Scope scope = SCOPE.get();
+		if (url != null && !url.equals(scope.url)) {
+			SCOPE.set(new Scope(url));
+		}
+	}
+
+	/**
+	 * To mark the handles for a check on their next use, called before a tap
+	 */
+	static void pageTouched() {
+		SCOPE.get().epoch++;
+	}
+
+	/**
+	 * To get the element of the locator from the cache, or from the resolver
+	 *
+	 * @param driver  session of the scenario
+	 * @param by      locator
+	 * @param resolve finds the element, and waits for it, when it is not cached
+	 * @return handle that looks the element up again when it turns stale
+	 */
+	public static WebElement lookup(WebDriver driver, By by, Function<By, WebElement> resolve) {
+		Scope scope = SCOPE.get();
+		String key = by.toString();
+		CachedElement cached = scope.elements.get(key);
+		if (cached != null) {
+			if (cached.verifiedEpoch == scope.epoch) {
+				return cached;
+			}
+			if (stillMatches(driver, key, cached.element)) {
+				cached.verifiedEpoch = scope.epoch;
+				return cached;
+			}
+			scope.elements.remove(key);
+		}
+
+		CachedElement element = new CachedElement(scope, by, resolve.apply(by), resolve);
+		scope.elements.put(key, element);
+		return element;
+	}
+
+	private static boolean stillMatches(WebDriver driver, String key, WebElement element) {
+		boolean css = key.startsWith(CSS_PREFIX);
+		if (!(css || key.startsWith(XPATH_PREFIX)) || !(driver instanceof JavascriptExecutor)) {
+			return false;
+		}
+		try {
+			return Boolean.TRUE.equals(((JavascriptExecutor) driver).executeScript(SAME_NODE_SCRIPT,
+					key.substring(css ? CSS_PREFIX.length() : XPATH_PREFIX.length()), element, css));
+		} catch (WebDriverException e) {
+			// Gone from the page, or not a web context
+			return false;
+		}
+	}
+
+	/**
+	 * To know if the element was found or checked since the last tap on the
+	 * current page
+	 */
+	public static boolean isFresh(WebElement element) {
+		if (!(element instanceof CachedElement)) {
+			return false;
+		}
+		CachedElement cached = (CachedElement) element;
+		return cached.scope == SCOPE.get() && cached.verifiedEpoch == cached.scope.epoch;
+	}
+
+	private static class CachedElement implements WebElement, WrapsElement, Locatable {
+
+		final Scope scope;
+
+		final By by;
+
+		final Function<By, WebElement> resolve;
+
+		volatile WebElement element;
+
+		int verifiedEpoch;
+
+		CachedElement(Scope scope, By by, WebElement element, Function<By, WebElement> resolve) {
+			this.scope = scope;
+			this.by = by;
+			this.element = element;
+			this.resolve = resolve;
+			this.verifiedEpoch = scope.epoch;
+		}
+
+		private <T> T call(Function<WebElement, T> action) {
+			try {
+				return action.apply(element);
+			} catch (StaleElementReferenceException e) {
+				element = resolve.apply(by);
+				return action.apply(element);
+			}
+		}
+
+		@Override
+		public void click() {
+			call(e -> {
+				e.click();
+				return null;
+			});
+		}
+
+		@Override
+		public void submit() {
+			call(e -> {
+				e.submit();
+				return null;
+			});
+		}
+
+		@Override
+		public void sendKeys(CharSequence... keysToSend) {
+			call(e -> {
+				e.sendKeys(keysToSend);
+				return null;
+			});
+		}
+
+		@Override
+		public void clear() {
+			call(e -> {
+				e.clear();
+				return null;
+			});
+		}
+
+		@Override
+		public String getTagName() {
+			return call(WebElement::getTagName);
+		}
+
+		@Override
+		public String getAttribute(String name) {
+			return call(e -> e.getAttribute(name));
+		}
+
+		@Override
+		public boolean isSelected() {
+			return call(WebElement::isSelected);
+		}
+
+		@Override
+		public boolean isEnabled() {
+			return call(WebElement::isEnabled);
+		}
+
+		@Override
+		public String getText() {
+			return call(WebElement::getText);
+		}
+
+		// Generic as WebElement declares them with java-client on the classpath
+		@Override
+		public <T extends WebElement> List<T> findElements(By locator) {
+			return call(e -> e.<T> findElements(locator));
+		}
+
+		@Override
+		public <T extends WebElement> T findElement(By locator) {
+			return call(e -> e.<T> findElement(locator));
+		}
+
+		@Override
+		public boolean isDisplayed() {
+			return call(WebElement::isDisplayed);
+		}
+
+		@Override
+		public Point getLocation() {
+			return call(WebElement::getLocation);
+		}
+
+		@Override
+		public Dimension getSize() {
+			return call(WebElement::getSize);
+		}
+
+		@Override
+		public Rectangle getRect() {
+			return call(WebElement::getRect);
+		}
+
+		@Override
+		public String getCssValue(String propertyName) {
+			return call(e -> e.getCssValue(propertyName));
+		}
+
+		@Override
+		public <X> X getScreenshotAs(OutputType<X> target) {
+			return call(e -> e.getScreenshotAs(target));
+		}
+
+		@Override
+		public WebElement getWrappedElement() {
+			return element;
+		}
+
+		@Override
+		public Coordinates getCoordinates() {
+			return call(e -> ((Locatable) e).getCoordinates());
+		}
+
+		@Override
+		public String toString() {
+			return element.toString();
+		}
+	}
+
+}
@@ -0,0 +1,183 @@
+package base;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+
+/**
+ * State of the first element of an XPath, as read by one script call together
+ * with the other locators of a verification step. In a native context, where
+ * scripts do not run, each element is read with driver calls.
+ */
+public final class ElementState {
+
+	// Reads every locator in the page and returns one entry per XPath, for the
+	// first of its candidates (see LocatorChain) that shows a node
+	private static final String QUERY_SCRIPT = "var xpaths = arguments[0], candidates = arguments[1], names = arguments[2], result = {};"
+			+ "var rendered = function(node) {"
+			+ "  var style = window.getComputedStyle(node);"
+			+ "  return node.getClientRects().length > 0 && style.visibility !== 'hidden' && style.display !== 'none';"
+			+ "};"
+			+ "for (var i = 0; i < xpaths.length; i++) {"
+			+ "  var node = null, matched = -1;"
+			+ "  for (var c = 0; c < candidates[i].length; c++) {"
+			+ "    var found = document.evaluate(candidates[i][c], document, null, XPathResult.FIRST_ORDERED_NODE_TYPE, null).singleNodeValue;"
+			+ "    if (found && rendered(found)) { node = found; matched = c; break; }"
+			+ "    if (found && !node) { node = found; matched = c; }"
+			+ "  }"
+			+ "  var state = { present: !!node, displayed: false, enabled: false, text: '', attributes: {}, matched: matched };"
+			+ "  if (node) {"
+			+ "    state.displayed = rendered(node);"
+			+ "    state.enabled = !node.disabled;"
+			+ "    var text = node.innerText !== undefined ? node.innerText : node.textContent;"
+			+ "    state.text = state.displayed && text ? text.replace(/\\s+/g, ' ').trim() : '';"
+			+ "    for (var j = 0; j < names.length; j++) {"
+			+ "      var value = node[names[j]];"
+			+ "      if (value === undefined || value === null || typeof value === 'object' || typeof value === 'function') {"
+			+ "        value = node.getAttribute(names[j]);"
+			+ "      }"
+			+ "      state.attributes[names[j]] = value === null ? null : String(value);"
+			+ "    }"
+			+ "  }"
+			+ "  result[xpaths[i]] = state;"
+			+ "}"
+			+ "return result;";
+
+	private final boolean present;
+
+	private final boolean displayed;
+
+	private final boolean enabled;
+
+	private final String text;
+
+	private final Map<String, String> attributes;
+
+	private ElementState(boolean present, boolean displayed, boolean enabled, String text,
+			Map<String, String> attributes) {
+		this.present = present;
+		this.displayed = displayed;
+		this.enabled = enabled;
+		this.text = text;
+		this.attributes = Collections.unmodifiableMap(attributes);
+	}
+
+	/**
+	 * To read the state of every locator in one script call, or with driver
+	 * calls per element in a native context
+	 *
+	 * @param driver     session of the scenario
+	 * @param xpaths     locators to read
+	 * @param attributes names of the attributes (or properties, such as value)
+	 *                   to read on each element
+	 * @return state per XPath, in the order given
+	 */
+	@SuppressWarnings("unchecked")
+	static Map<String, ElementState> query(WebDriver driver, List<String> xpaths, String... attributes) {
+		List<List<String>> candidates = new ArrayList<List<String>>();
+		for (String xpath : xpaths) {
+			candidates.add(LocatorChain.candidates(xpath));
+		}
+		if (!(driver instanceof JavascriptExecutor) || DriverContext.isNativeContext()) {
+			Map<String, ElementState> states = new LinkedHashMap<String, ElementState>();
+			for (int i = 0; i < xpaths.size(); i++) {
+				states.put(xpaths.get(i), read(driver, xpaths.get(i), candidates.get(i), attributes));
+			}
+			return states;
+		}
+		Map<String, Object> result = (Map<String, Object>) ((JavascriptExecutor) driver).executeScript(QUERY_SCRIPT,
+				xpaths, candidates, Arrays.asList(attributes));
+
+		Map<String, ElementState> states = new LinkedHashMap<String, ElementState>();
+		for (int i = 0; i < xpaths.size(); i++) {
+			String xpath = xpaths.get(i);
+			Map<String, Object> state = (Map<String, Object>) result.get(xpath);
+			int matched = ((Number) state.get("matched")).intValue();
+			if (matched >= 0 && candidates.get(i).size() > 1) {
+				LocatorChain.worked(xpath, candidates.get(i).get(matched));
+			}
+			Map<String, String> values = new LinkedHashMap<String, String>();
+			for (Map.Entry<String, Object> attribute : ((Map<String, Object>) state.get("attributes")).entrySet()) {
+				values.put(attribute.getKey(), attribute.getValue() == null ? null : attribute.getValue().toString());
+			}
+			states.put(xpath, new ElementState(Boolean.TRUE.equals(state.get("present")),
+					Boolean.TRUE.equals(state.get("displayed")), Boolean.TRUE.equals(state.get("enabled")),
+					String.valueOf(state.get("text")), values));
+		}
+		return states;
+	}
+
+	// The state of one XPath with driver calls, for the first of its candidates
+	// that is displayed, else the first present
+	private static ElementState read(WebDriver driver, String xpath, List<String> candidates, String[] attributes) {
+		WebElement node = null;
+		int matched = -1;
+		boolean displayed = false;
+		for (int c = 0; c < candidates.size() && !displayed; c++) {
+			List<WebElement> found = WaitPolicy.findNow(driver, By.xpath(candidates.get(c)));
+			if (found.isEmpty()) {
+				continue;
+			}
+			boolean shown = found.get(0).isDisplayed();
+			if (shown || node == null) {
+				node = found.get(0);
+				matched = c;
+				displayed = shown;
+			}
+		}
+		if (node == null) {
+			return new ElementState(false, false, false, "", new LinkedHashMap<String, String>());
+		}
+		if (candidates.size() > 1) {
+			LocatorChain.worked(xpath, candidates.get(matched));
+		}
+		Map<String, String> values = new LinkedHashMap<String, String>();
+		for (String name : attributes) {
+			values.put(name, node.getAttribute(name));
+		}
+		String text = displayed ? node.getText().replaceAll("\\s+", " ").trim() : "";
+		return new ElementState(true, displayed, node.isEnabled(), text, values);
+	}
+
+	public boolean isPresent() {
+		return present;
+	}
+
+	public boolean isDisplayed() {
+		return displayed;
+	}
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * Visible text with white space collapsed, empty when not displayed
+	 */
+	public String getText() {
+		return text;
+	}
+
+	/**
+	 * @param name attribute asked for in the query
+	 * @return value, or null when the element has no such attribute
+	 */
+	public String getAttribute(String name) {
+		return attributes.get(name);
+	}
+
+	@Override
+	public String toString() {
+		return "present=" + present + ", displayed=" + displayed + ", enabled=" + enabled + ", text=" + text
+				+ ", attributes=" + attributes;
+	}
+
+}
@@ -0,0 +1,264 @@
+package base;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.openqa.selenium.remote.http.HttpClient;
+import org.openqa.selenium.remote.http.HttpMethod;
+import org.openqa.selenium.remote.http.HttpRequest;
+import org.openqa.selenium.remote.http.HttpResponse;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+/**
+ * Circuit breaker per device of an Appium endpoint, keyed by the URL and the
+ * udid, so that one hung device behind a server does not mark the others down.
+ * Session creation and every driver command report to it: an I/O failure, or a
+ * 5xx answer that is not an ordinary WebDriver error (the device or its driver
+ * not responding), counts as a failure. After failureThreshold failures in a
+ * row the device is marked down, and sessions and commands for it fail at once
+ * instead of waiting on the new command timeout and the element waits. After
+ * retryAfterSeconds it is tried again, and one success closes the circuit.
+ */
+public final class EndpointHealth {
+
+	private static final Map<String, Circuit> CIRCUITS = new HashMap<String, Circuit>();
+
+	private static int failureThreshold = 3;
+
+	private static long retryAfterMillis = 300_000;
+
+	private static int probeTimeoutMillis = 5_000;
+
+	private static long commandTimeoutMillis = 180_000;
+
+	// Errors Appium answers with 500 under the JSON wire protocol when the device did respond
+	private static final Set<Integer> WIRE_ERRORS = new HashSet<Integer>(
+			Arrays.asList(7, 8, 9, 10, 11, 12, 15, 17, 19, 21, 23, 24, 25, 26, 27, 28, 29, 32, 33, 34, 60));
+
+	private EndpointHealth() {
+	}
+
+	private static class Circuit {
+
+		int failures;
+
+		long openedAt;
+	}
+
+	/**
+	 * To set how the endpoints are judged, read from config.properties
+	 *
+	 * @param threshold             failures in a row that mark an endpoint down
+	 * @param retryAfterSeconds     time before a down endpoint is tried again
+	 * @param probeTimeoutSeconds   connect and read timeout of the /status probe
+	 * @param commandTimeoutSeconds longest a driver command may take before the
+	 *                              device is taken as hung
+	 */
+	public static synchronized void configure(int threshold, int retryAfterSeconds, int probeTimeoutSeconds,
+			int commandTimeoutSeconds) {
+		failureThreshold = Math.max(1, threshold);
+		retryAfterMillis = Math.max(0, retryAfterSeconds) * 1000L;
+		probeTimeoutMillis = Math.max(1, probeTimeoutSeconds) * 1000;
+		commandTimeoutMillis = Math.max(1, commandTimeoutSeconds) * 1000L;
+	}
+
+	/**
+	 * To get the key of the circuit of a device
+	 *
+	 * @param appiumUrl URL of the Appium server
+	 * @param udid      udid of the device, null when the server has one
+	 */
+	public static String key(String appiumUrl, String udid) {
+		return udid != null ? appiumUrl + " [" + udid + "]" : appiumUrl;
+	}
+
+	/**
+	 * To know if sessions may be created on the device, false while it is
+	 * marked down and not yet due for another try
+	 *
+	 * @param appiumUrl URL of the Appium server
+	 * @param udid      udid of the device, null when the server has one
+	 */
+	public static boolean isAvailable(String appiumUrl, String udid) {
+		return isAvailable(key(appiumUrl, udid));
+	}
+
+	private static synchronized boolean isAvailable(String key) {
+		Circuit circuit = CIRCUITS.get(key);
+		if (circuit == null || circuit.failures < failureThreshold) {
+			return true;
+		}
+		return System.currentTimeMillis() - circuit.openedAt >= retryAfterMillis;
+	}
+
+	/**
+	 * To ask the Appium server for its /status with short timeouts, so that a
+	 * stopped server is noticed in seconds
+	 *
+	 * @param appiumUrl URL of the Appium server
+	 * @param udid      device the failure is counted against, may be null
+	 * @return true when the server answered 200
+	 */
+	public static boolean probe(URL appiumUrl, String udid) {
+		String circuit = key(appiumUrl.toString(), udid);
+		HttpURLConnection connection = null;
+		try {
+			String base = appiumUrl.toString().replaceAll("/+$", "");
+			connection = (HttpURLConnection) new URL(base + "/status").openConnection();
+			connection.setConnectTimeout(probeTimeoutMillis);
+			connection.setReadTimeout(probeTimeoutMillis);
+			if (connection.getResponseCode() == 200) {
+				return true;
+			}
+			recordFailure(circuit, "status " + connection.getResponseCode());
+			return false;
+		} catch (IOException e) {
+			recordFailure(circuit, e.toString());
+			return false;
+		} finally {
+			if (connection != null) {
+				connection.disconnect();
+			}
+		}
+	}
+
+	/**
+	 * @param key circuit of the device, see {@link #key(String, String)}
+	 */
+	public static synchronized void recordSuccess(String key) {
+		Circuit circuit = CIRCUITS.remove(key);
+		if (circuit != null && circuit.failures >= failureThreshold) {
+			System.out.println("Appium endpoint is back up: " + key);
+		}
+	}
+
+	/**
+	 * @param key    circuit of the device, see {@link #key(String, String)}
+	 * @param reason what failed, logged when the circuit opens
+	 */
+	public static synchronized void recordFailure(String key, String reason) {
+		Circuit circuit = CIRCUITS.get(key);
+		if (circuit == null) {
+			circuit = new Circuit();
+			CIRCUITS.put(key, circuit);
+		}
+		circuit.failures++;
+		if (circuit.failures >= failureThreshold) {
+			// Also restarts the wait after a failed retry
+			circuit.openedAt = System.currentTimeMillis();
+			System.out.println("Appium endpoint marked down after " + circuit.failures + " failures: " + key
+					+ " (" + reason + ")");
+		}
+	}
+
+	/**
+	 * HTTP client for the driver commands, with a read timeout so that a hung
+	 * device fails the command, and reporting every command to the circuit of
+	 * the device
+	 *
+	 * @param udid device the session runs on, null when the server has one
+	 */
+	public static HttpClient.Factory clientFactory(final String udid) {
+		return new HttpClient.Factory() {
+
+			private final HttpClient.Factory factory = HttpClient.Factory.createDefault();
+
+			@Override
+			public HttpClient.Builder builder() {
+				return factory.builder();
+			}
+
+			@Override
+			public HttpClient createClient(URL url) {
+				return new GuardedClient(key(url.toString(), udid), factory.builder()
+						.connectionTimeout(Duration.ofMillis(probeTimeoutMillis))
+						.readTimeout(Duration.ofMillis(commandTimeoutMillis)).createClient(url));
+			}
+
+			@Override
+			public void cleanupIdleClients() {
+				factory.cleanupIdleClients();
+			}
+		};
+	}
+
+	// Find element(s) commands
+	private static boolean isLookup(HttpRequest request) {
+		String uri = request.getUri();
+		return request.getMethod() == HttpMethod.POST && (uri.endsWith("/element") || uri.endsWith("/elements"));
+	}
+
+	/**
+	 * The reason a 5xx answer means the device or its driver did not respond,
+	 * null for any other answer. A 500 carrying an ordinary WebDriver error (no
+	 * such element, stale element, script error...) is the device answering.
+	 */
+	static String deviceFailure(int status, String body) {
+		if (status < 500) {
+			return null;
+		}
+		if (status != 500) {
+			return "status " + status;
+		}
+		try {
+			JsonObject json = new JsonParser().parse(body).getAsJsonObject();
+			JsonElement value = json.get("value");
+			if (value != null && value.isJsonObject() && value.getAsJsonObject().has("error")) {
+				String error = value.getAsJsonObject().get("error").getAsString();
+				return "unknown error".equals(error) ? "status 500 (" + error + ")" : null;
+			}
+			if (json.has("status") && WIRE_ERRORS.contains(json.get("status").getAsInt())) {
+				return null;
+			}
+		} catch (RuntimeException e) {
+			// Not a WebDriver answer, e.g. a proxy error page
+		}
+		return "status 500";
+	}
+
+	private static class GuardedClient implements HttpClient {
+
+		private final String circuit;
+
+		private final HttpClient client;
+
+		GuardedClient(String circuit, HttpClient client) {
+			this.circuit = circuit;
+			this.client = client;
+		}
+
+		@Override
+		public HttpResponse execute(HttpRequest request) throws IOException {
+			if (!isAvailable(circuit)) {
+				throw new IOException("Appium endpoint is marked down: " + circuit);
+			}
+			long start = System.nanoTime();
+			try {
+				HttpResponse response = client.execute(request);
+				String failure = deviceFailure(response.getStatus(), response.getContentString());
+				if (failure != null) {
+					recordFailure(circuit, failure);
+				} else {
+					recordSuccess(circuit);
+				}
+				return response;
+			} catch (IOException e) {
+				recordFailure(circuit, e.toString());
+				throw e;
+			} finally {
+				StepMetrics.command(System.nanoTime() - start, isLookup(request));
+			}
+		}
+	}
+
+}
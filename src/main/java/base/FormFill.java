@@ -0,0 +1,127 @@
+package base;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+
+/**
+ * Fills the text-like fields of a form in one script call. Each field is
+ * focused, the value goes through the native value setter of the input or
+ * textarea, as the iOS branch of TestBase.populateFields does, input and
+ * change events follow, so React takes the new value, and the field is blurred
+ * so blur handlers run as after typing. Radio buttons, checkboxes, selects,
+ * fields in an iframe and fields not rendered yet are left to native typing,
+ * as are fields with an input mask or their own blur handler, and fields whose
+ * script rewrote the value set (the field is emptied again for the typing).
+ */
+public final class FormFill {
+
+	/**
+	 * Outcome of a field
+	 */
+	public enum Outcome {
+		// The value is set
+		FILLED,
+		// Rendered, but needs native input: radio, checkbox, select, read-only, masked...
+		NATIVE,
+		// Not in the document yet, or in an iframe
+		MISSING
+	}
+
+	// Fills each field with the first of its candidates that is rendered, and
+	// returns per field its outcome and the candidate used
+	private static final String FILL_SCRIPT = "var candidates = arguments[0], values = arguments[1], result = [];"
+			+ "var typed = ['text', 'email', 'password', 'number', 'tel', 'search', 'url', ''];"
+			+ "var rendered = function(node) {"
+			+ "  var style = window.getComputedStyle(node);"
+			+ "  return node.getClientRects().length > 0 && style.visibility !== 'hidden' && style.display !== 'none';"
+			+ "};"
+			// Input mask libraries and inline blur validation expect keystrokes
+			+ "var masked = function(node) {"
+			+ "  return ['data-mask', 'data-inputmask', 'im-insert', 'mask', 'onblur', 'onfocusout'].some(function(name) {"
+			+ "    return node.hasAttribute(name);"
+			+ "  }) || (node.getAttribute('placeholder') || '').indexOf('_') >= 0;"
+			+ "};"
+			+ "var assign = function(node, proto, value) {"
+			+ "  var setter = Object.getOwnPropertyDescriptor(proto, 'value');"
+			+ "  if (setter && setter.set) { setter.set.call(node, value); } else { node.value = value; }"
+			+ "  node.dispatchEvent(new Event('input', { bubbles: true }));"
+			+ "};"
+			+ "for (var i = 0; i < candidates.length; i++) {"
+			+ "  var node = null, matched = -1;"
+			+ "  for (var c = 0; c < candidates[i].length && !node; c++) {"
+			+ "    var found = document.evaluate(candidates[i][c], document, null, XPathResult.FIRST_ORDERED_NODE_TYPE, null).singleNodeValue;"
+			+ "    if (found && rendered(found)) { node = found; matched = c; }"
+			+ "  }"
+			+ "  if (!node) { result.push({ outcome: 'MISSING', matched: -1 }); continue; }"
+			+ "  var tag = node.tagName.toLowerCase(), type = (node.getAttribute('type') || '').toLowerCase();"
+			+ "  var proto = tag === 'textarea' ? window.HTMLTextAreaElement.prototype"
+			+ "    : tag === 'input' && typed.indexOf(type) >= 0 ? window.HTMLInputElement.prototype : null;"
+			+ "  if (!proto || node.disabled || node.readOnly || masked(node)) { result.push({ outcome: 'NATIVE', matched: matched }); continue; }"
+			+ "  node.focus();"
+			+ "  assign(node, proto, values[i]);"
+			+ "  if (node.value !== String(values[i])) {"
+			+ "    assign(node, proto, '');"
+			+ "    node.blur();"
+			+ "    result.push({ outcome: 'NATIVE', matched: matched });"
+			+ "    continue;"
+			+ "  }"
+			+ "  node.dispatchEvent(new Event('change', { bubbles: true }));"
+			+ "  node.blur();"
+			+ "  result.push({ outcome: 'FILLED', matched: matched });"
+			+ "}"
+			+ "return result;";
+
+	private static volatile boolean enabled = true;
+
+	private FormFill() {
+	}
+
+	/**
+	 * To switch batch filling on or off (batchFormFill in config.properties); off,
+	 * every field is typed natively
+	 */
+	public static void setEnabled(boolean on) {
+		enabled = on;
+	}
+
+	/**
+	 * To fill the text-like fields in one call
+	 *
+	 * @param driver session of the scenario
+	 * @param xpaths fields
+	 * @param values value per field, in the same order
+	 * @return outcome per field; all NATIVE when batch filling is off or the
+	 *         session is in a native context
+	 */
+	@SuppressWarnings("unchecked")
+	public static List<Outcome> fill(WebDriver driver, List<String> xpaths, List<String> values) {
+		List<Outcome> outcomes = new ArrayList<Outcome>();
+		if (!enabled || !(driver instanceof JavascriptExecutor) || DriverContext.isNativeContext()) {
+			for (int i = 0; i < xpaths.size(); i++) {
+				outcomes.add(Outcome.NATIVE);
+			}
+			return outcomes;
+		}
+
+		List<List<String>> candidates = new ArrayList<List<String>>();
+		for (String xpath : xpaths) {
+			candidates.add(LocatorChain.candidates(xpath));
+		}
+		List<Object> result = (List<Object>) ((JavascriptExecutor) driver).executeScript(FILL_SCRIPT, candidates,
+				values);
+		for (int i = 0; i < xpaths.size(); i++) {
+			Map<String, Object> field = (Map<String, Object>) result.get(i);
+			int matched = ((Number) field.get("matched")).intValue();
+			if (matched >= 0 && candidates.get(i).size() > 1) {
+				LocatorChain.worked(xpaths.get(i), candidates.get(i).get(matched));
+			}
+			outcomes.add(Outcome.valueOf((String) field.get("outcome")));
+		}
+		return outcomes;
+	}
+
+}
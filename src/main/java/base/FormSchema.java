@@ -0,0 +1,211 @@
+package base;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+
+/**
+ * Tag, input type, name and required state of the fields of a screen, read for
+ * all of them in one script call the first time the screen is seen and kept
+ * for the session. Each use checks the DOM signature of the page, its path and
+ * the tag, type and name of every form control, and reads the fields again when
+ * it changed.
+ */
+public final class FormSchema {
+
+	// Path of the page and a hash of its form controls
+	private static final String SIGNATURE = "var signature = function() {"
+			+ "  var controls = document.querySelectorAll('input, select, textarea'), hash = 0;"
+			+ "  for (var i = 0; i < controls.length; i++) {"
+			+ "    var key = controls[i].tagName + '/' + (controls[i].getAttribute('type') || '') + '/' + (controls[i].getAttribute('name') || '');"
+			+ "    for (var j = 0; j < key.length; j++) { hash = (hash * 31 + key.charCodeAt(j)) | 0; }"
+			+ "  }"
+			+ "  return location.pathname + '|' + controls.length + '|' + hash;"
+			+ "};";
+
+	private static final String SIGNATURE_SCRIPT = SIGNATURE + "return signature();";
+
+	// Reads each field from the first of its candidates that is rendered
+	private static final String READ_SCRIPT = SIGNATURE
+			+ "var candidates = arguments[0], fields = [];"
+			+ "var rendered = function(node) {"
+			+ "  var style = window.getComputedStyle(node);"
+			+ "  return node.getClientRects().length > 0 && style.visibility !== 'hidden' && style.display !== 'none';"
+			+ "};"
+			+ "for (var i = 0; i < candidates.length; i++) {"
+			+ "  var node = null;"
+			+ "  for (var c = 0; c < candidates[i].length && !node; c++) {"
+			+ "    var found = document.evaluate(candidates[i][c], document, null, XPathResult.FIRST_ORDERED_NODE_TYPE, null).singleNodeValue;"
+			+ "    if (found && rendered(found)) { node = found; }"
+			+ "  }"
+			+ "  fields.push(node ? { present: true, tag: node.tagName.toLowerCase(),"
+			+ "    type: (node.getAttribute('type') || (node.tagName.toLowerCase() === 'input' ? 'text' : '')).toLowerCase(),"
+			+ "    name: node.getAttribute('name') || '',"
+			+ "    required: !!node.required || node.getAttribute('aria-required') === 'true' }"
+			+ "    : { present: false, tag: '', type: '', name: '', required: false });"
+			+ "}"
+			+ "return { signature: signature(), fields: fields };";
+
+	// Schemas of the session of the thread, by the fields of the screen
+	private static final ThreadLocal<Map<List<String>, FormSchema>> SCHEMAS = new ThreadLocal<Map<List<String>, FormSchema>>() {
+
+		@Override
+		protected Map<List<String>, FormSchema> initialValue() {
+			return new HashMap<List<String>, FormSchema>();
+		}
+	};
+
+	private final String signature;
+
+	private final List<Field> fields;
+
+	private FormSchema(String signature, List<Field> fields) {
+		this.signature = signature;
+		this.fields = Collections.unmodifiableList(fields);
+	}
+
+	/**
+	 * One field of the screen
+	 */
+	public static final class Field {
+
+		private final boolean present;
+
+		private final String tag;
+
+		private final String type;
+
+		private final String name;
+
+		private final boolean required;
+
+		Field(boolean present, String tag, String type, String name, boolean required) {
+			this.present = present;
+			this.tag = tag;
+			this.type = type;
+			this.name = name;
+			this.required = required;
+		}
+
+		/**
+		 * Whether the field was rendered when the schema was read; when not, its
+		 * kind is unknown
+		 */
+		public boolean isPresent() {
+			return present;
+		}
+
+		public String getTag() {
+			return tag;
+		}
+
+		public String getType() {
+			return type;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public boolean isRequired() {
+			return required;
+		}
+
+		/**
+		 * The input type for an input, the tag otherwise, as TestBase.getTagName
+		 * returns it
+		 */
+		public String getKind() {
+			return "input".equals(tag) ? type : tag;
+		}
+
+		@Override
+		public String toString() {
+			return present ? getKind() + (name.isEmpty() ? "" : " " + name) + (required ? " required" : "")
+					: "not rendered";
+		}
+	}
+
+	/**
+	 * To drop the schemas of the thread, when its session changes
+	 */
+	public static void clear() {
+		SCHEMAS.remove();
+	}
+
+	/**
+	 * To get the schema of the fields of a screen, read again when the DOM
+	 * signature changed or a field was not rendered last time
+	 *
+	 * @param driver session of the scenario
+	 * @param xpaths fields array of the page object
+	 * @return schema, null in a native context
+	 */
+	public static FormSchema of(WebDriver driver, String[] xpaths) {
+		if (!(driver instanceof JavascriptExecutor) || DriverContext.isNativeContext()) {
+			return null;
+		}
+		List<String> key = Arrays.asList(xpaths.clone());
+		Map<List<String>, FormSchema> schemas = SCHEMAS.get();
+		FormSchema cached = schemas.get(key);
+		if (cached != null && cached.complete() && cached.signature
+				.equals(String.valueOf(((JavascriptExecutor) driver).executeScript(SIGNATURE_SCRIPT)))) {
+			return cached;
+		}
+
+		FormSchema schema = read(driver, key);
+		schemas.put(key, schema);
+		return schema;
+	}
+
+	@SuppressWarnings("unchecked")
+	private static FormSchema read(WebDriver driver, List<String> xpaths) {
+		List<List<String>> candidates = new ArrayList<List<String>>();
+		for (String xpath : xpaths) {
+			candidates.add(LocatorChain.candidates(xpath));
+		}
+		Map<String, Object> result = (Map<String, Object>) ((JavascriptExecutor) driver).executeScript(READ_SCRIPT,
+				candidates);
+
+		List<Field> fields = new ArrayList<Field>();
+		for (Object item : (List<Object>) result.get("fields")) {
+			Map<String, Object> field = (Map<String, Object>) item;
+			fields.add(new Field(Boolean.TRUE.equals(field.get("present")), String.valueOf(field.get("tag")),
+					String.valueOf(field.get("type")), String.valueOf(field.get("name")),
+					Boolean.TRUE.equals(field.get("required"))));
+		}
+		return new FormSchema(String.valueOf(result.get("signature")), fields);
+	}
+
+	private boolean complete() {
+		for (Field field : fields) {
+			if (!field.present) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * @param index position of the field in the fields array
+	 */
+	public Field get(int index) {
+		return fields.get(index);
+	}
+
+	public int size() {
+		return fields.size();
+	}
+
+	@Override
+	public String toString() {
+		return signature + " " + fields;
+	}
+
+}
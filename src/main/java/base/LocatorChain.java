@@ -0,0 +1,272 @@
+package base;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.apache.commons.io.FileUtils;
+import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.NoSuchElementException;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.WebElement;
+
+import com.google.gson.GsonBuilder;
+import com.google.gson.reflect.TypeToken;
+
+/**
+ * Fallback candidates of a locator, tried in one probe pass when the locator
+ * itself finds nothing, so that a class name the front end renamed costs a
+ * script call instead of the full wait timeout.
+ *
+ * A page object gives the candidates, by text, role or another attribute,
+ * where it declares the locator:
+ *
+ * <pre>
+ * final String payLater = LocatorChain.of("//button[@class='x__1cko_ btn']", "//button[contains(text(), 'Pay at')]");
+ * </pre>
+ *
+ * Any XPath matching a generated class such as signUp_colorWhite__27Dfm also
+ * gets a structural candidate that matches the class by its stable prefix and
+ * the other classes by name. The candidate that found the element is
+ * remembered, tried first from then on, and saved to healedLocators so the
+ * next run starts with it.
+ */
+public final class LocatorChain {
+
+	// A CSS-modules class: name__ and a 5 character hash with a digit, so BEM elements such as card__title are not taken;
+	// in the syntax of both Java and JavaScript, for the scripts that tell these classes apart too
+	static final String HASHED_CLASS_REGEX = "^([A-Za-z][\\w-]*?__)(?=[A-Za-z_-]{0,4}[0-9])[A-Za-z0-9_-]{5}$";
+
+	private static final Pattern HASHED_CLASS = Pattern.compile(HASHED_CLASS_REGEX);
+
+	private static final Pattern CLASS_TEST = Pattern.compile("@class\\s*=\\s*(['\"])([^'\"]*)\\1");
+
+	// Index and node of the first candidate whose first node is rendered, null when none is
+	private static final String PROBE_SCRIPT = "var candidates = arguments[0];"
+			+ "for (var i = 0; i < candidates.length; i++) {"
+			+ "  try {"
+			+ "    var node = document.evaluate(candidates[i], document, null, XPathResult.FIRST_ORDERED_NODE_TYPE, null).singleNodeValue;"
+			+ "    if (node && node.getClientRects().length > 0 && window.getComputedStyle(node).visibility !== 'hidden') {"
+			+ "      return [i, node];"
+			+ "    }"
+			+ "  } catch (e) {}"
+			+ "}"
+			+ "return null;";
+
+	// Chains of the locators seen, up to this many
+	private static final int MAX_CHAINS = 4096;
+
+	private static final Map<String, List<String>> CHAINS = new ConcurrentHashMap<String, List<String>>();
+
+	// Locator to the candidate that last found its element, when it is not the locator
+	private static final Map<String, String> REMEMBERED = new ConcurrentHashMap<String, String>();
+
+	private static final Set<String> REPORTED = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+
+	private static volatile File memory;
+
+	private LocatorChain() {
+	}
+
+	/**
+	 * Candidate that found an element, and the element
+	 */
+	private static final class Hit {
+
+		private final int index;
+
+		private final WebElement element;
+
+		Hit(int index, WebElement element) {
+			this.index = index;
+			this.element = element;
+		}
+	}
+
+	/**
+	 * To give a locator its fallback candidates
+	 *
+	 * @param primary   XPath the page object uses
+	 * @param fallbacks XPaths tried, in order, when the primary finds nothing
+	 * @return the primary, to be used as before
+	 */
+	public static String of(String primary, String... fallbacks) {
+		List<String> chain = new ArrayList<String>();
+		chain.add(primary);
+		chain.addAll(Arrays.asList(fallbacks));
+		String derived = derive(primary);
+		if (derived != null && !chain.contains(derived)) {
+			chain.add(derived);
+		}
+		CHAINS.put(primary, Collections.unmodifiableList(chain));
+		return primary;
+	}
+
+	/**
+	 * To get the candidates of a locator, the one that found the element last
+	 * time first
+	 *
+	 * @param xpath locator
+	 * @return the locator alone when it has no fallback
+	 */
+	public static List<String> candidates(String xpath) {
+		List<String> chain = CHAINS.get(xpath);
+		if (chain == null) {
+			String derived = derive(xpath);
+			chain = derived != null ? Collections.unmodifiableList(Arrays.asList(xpath, derived))
+					: Collections.singletonList(xpath);
+			if (CHAINS.size() < MAX_CHAINS) {
+				CHAINS.putIfAbsent(xpath, chain);
+			}
+		}
+		String remembered = REMEMBERED.get(xpath);
+		if (remembered == null || !chain.contains(remembered)) {
+			return chain;
+		}
+		List<String> ordered = new ArrayList<String>(chain);
+		ordered.remove(remembered);
+		ordered.add(0, remembered);
+		return ordered;
+	}
+
+	/**
+	 * To find the element of the first candidate that shows one, polling until
+	 * the wait timeout of the locator
+	 *
+	 * @param driver  session of the scenario
+	 * @param primary locator
+	 * @param locate  locator a candidate XPath is found with
+	 * @return element of the candidate
+	 * @throws NoSuchElementException when no candidate found an element
+	 */
+	public static WebElement resolve(WebDriver driver, String primary, Function<String, By> locate) {
+		List<String> ordered = candidates(primary);
+		Hit hit;
+		try {
+			hit = WaitPolicy.until(driver, locate.apply(primary).toString(), d -> firstRendered(d, ordered, locate));
+		} catch (TimeoutException e) {
+			throw new NoSuchElementException("No candidate of " + primary + " found: " + ordered, e);
+		}
+		worked(primary, ordered.get(hit.index));
+		return hit.element;
+	}
+
+	/**
+	 * To remember the candidate that found the element of a locator
+	 */
+	static void worked(String primary, String candidate) {
+		if (primary.equals(candidate)) {
+			REMEMBERED.remove(primary);
+			return;
+		}
+		REMEMBERED.put(primary, candidate);
+		if (REPORTED.add(primary)) {
+			System.out.println("Locator healed: " + primary + " -> " + candidate);
+		}
+	}
+
+	// The element comes back with the probe, so it is not looked up again
+	private static Hit firstRendered(WebDriver driver, List<String> candidates, Function<String, By> locate) {
+		if (driver instanceof JavascriptExecutor && !DriverContext.isNativeContext()) {
+			Object found = ((JavascriptExecutor) driver).executeScript(PROBE_SCRIPT, candidates);
+			if (found instanceof List && ((List<?>) found).size() == 2) {
+				List<?> hit = (List<?>) found;
+				return new Hit(((Number) hit.get(0)).intValue(), (WebElement) hit.get(1));
+			}
+			return null;
+		}
+		for (int i = 0; i < candidates.size(); i++) {
+			try {
+				List<WebElement> found = WaitPolicy.findNow(driver, locate.apply(candidates.get(i)));
+				if (!found.isEmpty() && found.get(0).isDisplayed()) {
+					return new Hit(i, found.get(0));
+				}
+			} catch (WebDriverException e) {
+				// An XPath the native hierarchy does not take, go on with the next
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * The locator with each generated class matched by its stable prefix, null
+	 * when it has none
+	 */
+	static String derive(String xpath) {
+		Matcher test = CLASS_TEST.matcher(xpath);
+		StringBuffer derived = new StringBuffer();
+		boolean hashed = false;
+		while (test.find()) {
+			List<String> conditions = new ArrayList<String>();
+			for (String name : test.group(2).trim().split("\\s+")) {
+				Matcher hash = HASHED_CLASS.matcher(name);
+				if (hash.matches()) {
+					hashed = true;
+					conditions.add("contains(@class, '" + hash.group(1) + "')");
+				} else if (!name.isEmpty()) {
+					conditions.add("contains(concat(' ', normalize-space(@class), ' '), ' " + name + " ')");
+				}
+			}
+			test.appendReplacement(derived, Matcher.quoteReplacement(String.join(" and ", conditions)));
+		}
+		test.appendTail(derived);
+		return hashed ? derived.toString() : null;
+	}
+
+	/**
+	 * To read the candidates remembered by earlier runs, once per file
+	 *
+	 * @param file JSON map of locator to candidate
+	 */
+	public static synchronized void load(File file) {
+		if (file.equals(memory)) {
+			return;
+		}
+		memory = file;
+		if (!file.isFile()) {
+			return;
+		}
+		try {
+			Type type = new TypeToken<Map<String, String>>() {
+			}.getType();
+			Map<String, String> saved = new GsonBuilder().create()
+					.fromJson(FileUtils.readFileToString(file, StandardCharsets.UTF_8), type);
+			if (saved != null) {
+				REMEMBERED.putAll(saved);
+			}
+		} catch (IOException | RuntimeException e) {
+			System.out.println("Healed locators not read from " + file + ": " + e);
+		}
+	}
+
+	/**
+	 * To save the remembered candidates for the next run
+	 */
+	public static synchronized void save() {
+		if (memory == null) {
+			return;
+		}
+		try {
+			FileUtils.writeStringToFile(memory, new GsonBuilder().setPrettyPrinting().disableHtmlEscaping().create()
+					.toJson(new TreeMap<String, String>(REMEMBERED)), StandardCharsets.UTF_8);
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+
+}
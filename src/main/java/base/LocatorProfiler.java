@@ -0,0 +1,265 @@
+package base;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.commons.io.FileUtils;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+
+import com.google.gson.GsonBuilder;
+
+/**
+ * Profiling mode for the locators looked up through TestBase.getElement,
+ * switched on with locatorProfiling=true in config.properties.
+ *
+ * Every lookup is timed and counted per locator. The first time a locator
+ * finds its element, a script times the XPath in the page against the
+ * strategies that lead to the same element: the CSS equivalent of the XPath,
+ * the id of the element, a stable attribute (data-testid, name, aria-label,
+ * placeholder) and its classes without the generated hash suffix. The report,
+ * target/locator-profile.json, ranks the locators by the time spent on them
+ * and suggests the fastest strategy that finds the same, single element.
+ */
+public final class LocatorProfiler {
+
+	private static final String SCREEN_PACKAGE = "pages.";
+
+	// Times of the in-page lookups are averaged over this many runs
+	private static final int RUNS = 20;
+
+	// Times the XPath and the candidate strategies, each with its match count and
+	// whether its first match is the element the XPath finds; generated classes
+	// (LocatorChain.HASHED_CLASS_REGEX) are left out of the class selector
+	private static final String COMPARE_SCRIPT = "var xpath = arguments[0], css = arguments[1], runs = arguments[2], hashed = new RegExp(arguments[3]);"
+			+ "var time = function(find) {"
+			+ "  var start = performance.now(), found;"
+			+ "  for (var i = 0; i < runs; i++) { found = find(); }"
+			+ "  return { micros: Math.round((performance.now() - start) * 1000 / runs), found: found };"
+			+ "};"
+			+ "var byXpath = function() {"
+			+ "  var list = document.evaluate(xpath, document, null, XPathResult.ORDERED_NODE_SNAPSHOT_TYPE, null);"
+			+ "  return { count: list.snapshotLength, first: list.snapshotLength ? list.snapshotItem(0) : null };"
+			+ "};"
+			+ "var byCss = function(selector) {"
+			+ "  return function() {"
+			+ "    var list = document.querySelectorAll(selector);"
+			+ "    return { count: list.length, first: list.length ? list[0] : null };"
+			+ "  };"
+			+ "};"
+			+ "var quote = function(text) { return \"'\" + text.replace(/\\\\/g, '\\\\\\\\').replace(/'/g, \"\\\\'\") + \"'\"; };"
+			+ "var base = time(byXpath), node = base.found.first, result = [];"
+			+ "result.push({ strategy: 'xpath', selector: xpath, micros: base.micros, matches: base.found.count, same: true });"
+			+ "if (!node) { return result; }"
+			+ "var candidates = [], tag = node.tagName.toLowerCase();"
+			+ "if (css) { candidates.push(['css', css]); }"
+			+ "if (node.id) {"
+			+ "  var sameId = document.querySelectorAll('[id=' + quote(node.id) + ']').length;"
+			+ "  candidates.push(['id', node.id, function() {"
+			+ "    var found = document.getElementById(node.id);"
+			+ "    return { count: found ? sameId : 0, first: found };"
+			+ "  }]);"
+			+ "}"
+			+ "var names = ['data-testid', 'data-test', 'name', 'aria-label', 'placeholder'];"
+			+ "for (var i = 0; i < names.length; i++) {"
+			+ "  if (node.getAttribute(names[i])) {"
+			+ "    candidates.push(['css', tag + '[' + names[i] + '=' + quote(node.getAttribute(names[i])) + ']']);"
+			+ "  }"
+			+ "}"
+			+ "var classes = [];"
+			+ "for (var i = 0; i < node.classList.length; i++) {"
+			+ "  var name = node.classList[i];"
+			+ "  if (!hashed.test(name) && /^[A-Za-z_][\\w-]*$/.test(name)) { classes.push(name); }"
+			+ "}"
+			+ "if (classes.length) { candidates.push(['css', tag + '.' + classes.join('.')]); }"
+			+ "for (var i = 0; i < candidates.length; i++) {"
+			+ "  try {"
+			+ "    var run = time(candidates[i][2] || byCss(candidates[i][1]));"
+			+ "    result.push({ strategy: candidates[i][0], selector: String(candidates[i][1]), micros: run.micros,"
+			+ "      matches: run.found.count, same: run.found.first === node });"
+			+ "  } catch (e) {}"
+			+ "}"
+			+ "return result;";
+
+	private static final Map<String, Profile> PROFILES = new ConcurrentHashMap<String, Profile>();
+
+	private static volatile boolean enabled;
+
+	private LocatorProfiler() {
+	}
+
+	/**
+	 * Lookups and strategies measured for one locator
+	 */
+	static class Profile {
+
+		final Set<String> callers = new TreeSet<String>();
+
+		long calls;
+
+		long failures;
+
+		long totalMillis;
+
+		long maxMillis;
+
+		// Filled in once, by the first lookup that found the element
+		List<Map<String, Object>> strategies;
+
+		synchronized void add(String caller, long millis, boolean found) {
+			if (caller != null) {
+				callers.add(caller);
+			}
+			calls++;
+			totalMillis += millis;
+			maxMillis = Math.max(maxMillis, millis);
+			if (!found) {
+				failures++;
+			}
+		}
+	}
+
+	public static void setEnabled(boolean on) {
+		enabled = on;
+	}
+
+	public static boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * To record a lookup, and compare the strategies for the locator when it is
+	 * seen finding its element for the first time
+	 *
+	 * @param driver session of the scenario
+	 * @param xpath  locator looked up
+	 * @param millis time the lookup took, waiting included
+	 * @param found  whether the element was found
+	 */
+	public static void record(WebDriver driver, String xpath, long millis, boolean found) {
+		if (!enabled) {
+			return;
+		}
+		Profile profile = PROFILES.computeIfAbsent(xpath, k -> new Profile());
+		profile.add(caller(), millis, found);
+
+		boolean compare;
+		synchronized (profile) {
+			compare = found && profile.strategies == null;
+		}
+		if (compare && driver instanceof JavascriptExecutor && !DriverContext.isNativeContext()) {
+			List<Map<String, Object>> strategies = compare(driver, xpath);
+			if (strategies != null) {
+				synchronized (profile) {
+					profile.strategies = strategies;
+				}
+			}
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private static List<Map<String, Object>> compare(WebDriver driver, String xpath) {
+		try {
+			LocatorTemplate template = LocatorTemplate.of(xpath);
+			// Empty rather than null, which not every driver takes as an argument
+			String css = template.hasCss() ? template.css() : "";
+			return (List<Map<String, Object>>) ((JavascriptExecutor) driver).executeScript(COMPARE_SCRIPT, xpath,
+					css, RUNS, LocatorChain.HASHED_CLASS_REGEX);
+		} catch (RuntimeException e) {
+			// The page moved on, or the locator has {} in it; never fail the lookup
+			// over it, try on the next one
+			return null;
+		}
+	}
+
+	/**
+	 * To write the report, locators with the most time spent first
+	 *
+	 * @param file JSON report
+	 */
+	public static void writeReport(File file) {
+		if (PROFILES.isEmpty()) {
+			return;
+		}
+		List<Map<String, Object>> rows = new ArrayList<Map<String, Object>>();
+		for (Map.Entry<String, Profile> entry : PROFILES.entrySet()) {
+			Profile profile = entry.getValue();
+			synchronized (profile) {
+				Map<String, Object> row = new LinkedHashMap<String, Object>();
+				row.put("locator", entry.getKey());
+				row.put("usedBy", new ArrayList<String>(profile.callers));
+				row.put("calls", profile.calls);
+				row.put("failures", profile.failures);
+				row.put("totalMillis", profile.totalMillis);
+				row.put("meanMillis", profile.totalMillis / profile.calls);
+				row.put("maxMillis", profile.maxMillis);
+				if (profile.strategies != null) {
+					row.put("strategies", profile.strategies);
+					String suggestion = suggest(profile.strategies);
+					if (suggestion != null) {
+						row.put("suggestion", suggestion);
+					}
+				}
+				rows.add(row);
+			}
+		}
+		Collections.sort(rows, (a, b) -> Long.compare((Long) b.get("totalMillis"), (Long) a.get("totalMillis")));
+		try {
+			FileUtils.writeStringToFile(file,
+					new GsonBuilder().setPrettyPrinting().disableHtmlEscaping().create().toJson(rows),
+					StandardCharsets.UTF_8);
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+
+	/**
+	 * The fastest strategy that finds the same element and nothing else, when it
+	 * beats the XPath
+	 */
+	private static String suggest(List<Map<String, Object>> strategies) {
+		Map<String, Object> xpath = strategies.get(0);
+		Map<String, Object> best = null;
+		for (Map<String, Object> strategy : strategies.subList(1, strategies.size())) {
+			if (Boolean.TRUE.equals(strategy.get("same")) && number(strategy.get("matches")) == 1
+					&& (best == null || number(strategy.get("micros")) < number(best.get("micros")))) {
+				best = strategy;
+			}
+		}
+		if (best == null || number(best.get("micros")) >= number(xpath.get("micros"))) {
+			return number(xpath.get("matches")) > 1
+					? "matches " + number(xpath.get("matches")) + " elements, make it unique"
+					: null;
+		}
+		String by = "id".equals(best.get("strategy")) ? "By.id(\"" + best.get("selector") + "\")"
+				: "By.cssSelector(\"" + best.get("selector") + "\")";
+		return by + ", " + number(best.get("micros")) + " µs against " + number(xpath.get("micros")) + " µs";
+	}
+
+	private static long number(Object value) {
+		return value instanceof Number ? ((Number) value).longValue() : 0;
+	}
+
+	/**
+	 * The page object method the lookup was made for, e.g.
+	 * LoginScreen.verifyCheckInMessages
+	 */
+	private static String caller() {
+		for (StackTraceElement frame : Thread.currentThread().getStackTrace()) {
+			if (frame.getClassName().startsWith(SCREEN_PACKAGE)) {
+				return frame.getClassName().substring(SCREEN_PACKAGE.length()) + "." + frame.getMethodName();
+			}
+		}
+		return null;
+	}
+
+}
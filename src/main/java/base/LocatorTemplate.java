@@ -0,0 +1,356 @@
+package base;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.openqa.selenium.By;
+
+/**
+ * An XPath with {} slots, e.g. //div[text()={}]/ancestor::div[2], compiled once
+ * and bound per call. A slot takes the place of a whole string literal, the
+ * value bound to it is quoted, so a menu item such as Chef's Special does not
+ * break the XPath.
+ *
+ * When the XPath only walks tags and tests attributes (=, contains and
+ * starts-with, joined by and) the template also has a CSS equivalent, which the
+ * drivers find faster; a text() test, an axis or a position keeps it an XPath.
+ */
+public final class LocatorTemplate {
+
+	private static final String SLOT = "{}";
+
+	// Stands for a slot while the XPath is translated, cannot be typed in a locator
+	private static final char MARK = '\u0000';
+
+	// Every locator seen is compiled once, bound ones included, up to this many
+	private static final int MAX_COMPILED = 4096;
+
+	private static final Map<String, LocatorTemplate> COMPILED = new ConcurrentHashMap<String, LocatorTemplate>();
+
+	private static final Pattern STEP = Pattern.compile("(//|/)(\\*|[A-Za-z][\\w-]*)");
+
+	private static final Pattern NAME = Pattern.compile("[A-Za-z_][\\w-]*");
+
+	private final String template;
+
+	private final String[] xpathParts;
+
+	// null when the XPath has no CSS equivalent
+	private final String[] cssParts;
+
+	private LocatorTemplate(String template) {
+		this.template = template;
+		this.xpathParts = split(template, SLOT);
+
+		StringBuilder marked = new StringBuilder(xpathParts[0]);
+		for (int i = 1; i < xpathParts.length; i++) {
+			marked.append('\'').append(MARK).append('\'').append(xpathParts[i]);
+		}
+		String css = toCss(marked.toString());
+		String[] parts = css != null ? split(css, "'" + MARK + "'") : null;
+		this.cssParts = parts != null && parts.length == xpathParts.length ? parts : null;
+	}
+
+	/**
+	 * To get the compiled template
+	 *
+	 * @param template XPath with a {} in place of each string literal to bind
+	 */
+	public static LocatorTemplate of(String template) {
+		LocatorTemplate compiled = COMPILED.get(template);
+		if (compiled == null) {
+			compiled = new LocatorTemplate(template);
+			if (COMPILED.size() < MAX_COMPILED) {
+				COMPILED.putIfAbsent(template, compiled);
+			}
+		}
+		return compiled;
+	}
+
+	/**
+	 * To get the locator an XPath is found with, the CSS equivalent when there is
+	 * one
+	 *
+	 * @param xpath XPath without slots
+	 */
+	public static By locate(String xpath) {
+		return of(xpath).by();
+	}
+
+	/**
+	 * @param values one per slot, in order
+	 * @return the XPath with the values quoted in
+	 */
+	public String xpath(String... values) {
+		checkArity(values);
+		StringBuilder xpath = new StringBuilder(xpathParts[0]);
+		for (int i = 1; i < xpathParts.length; i++) {
+			xpath.append(xpathLiteral(values[i - 1])).append(xpathParts[i]);
+		}
+		return xpath.toString();
+	}
+
+	/**
+	 * @param values one per slot, in order
+	 * @return the CSS selector with the values quoted in, or null when the
+	 *         template has no CSS equivalent
+	 */
+	public String css(String... values) {
+		checkArity(values);
+		if (cssParts == null) {
+			return null;
+		}
+		for (String value : values) {
+			// contains(@a, '') matches every element, [a*=''] none
+			if (value.isEmpty()) {
+				return null;
+			}
+		}
+		StringBuilder css = new StringBuilder(cssParts[0]);
+		for (int i = 1; i < cssParts.length; i++) {
+			css.append(cssLiteral(values[i - 1])).append(cssParts[i]);
+		}
+		return css.toString();
+	}
+
+	/**
+	 * @param values one per slot, in order
+	 * @return By.cssSelector when the template has a CSS equivalent, else By.xpath
+	 */
+	public By by(String... values) {
+		String css = css(values);
+		return css != null ? By.cssSelector(css) : By.xpath(xpath(values));
+	}
+
+	public boolean hasCss() {
+		return cssParts != null;
+	}
+
+	@Override
+	public String toString() {
+		return template;
+	}
+
+	private void checkArity(String[] values) {
+		if (values.length != xpathParts.length - 1) {
+			throw new IllegalArgumentException(
+					template + " takes " + (xpathParts.length - 1) + " values, got " + values.length);
+		}
+	}
+
+	private static String[] split(String text, String separator) {
+		List<String> parts = new ArrayList<String>();
+		int from = 0;
+		int at;
+		while ((at = text.indexOf(separator, from)) >= 0) {
+			parts.add(text.substring(from, at));
+			from = at + separator.length();
+		}
+		parts.add(text.substring(from));
+		return parts.toArray(new String[parts.size()]);
+	}
+
+	static String xpathLiteral(String value) {
+		if (value.indexOf('\'') < 0) {
+			return "'" + value + "'";
+		}
+		if (value.indexOf('"') < 0) {
+			return "\"" + value + "\"";
+		}
+		// Both quotes, XPath 1.0 has no escape, so glue the pieces together
+		StringBuilder concat = new StringBuilder("concat(");
+		String[] pieces = value.split("'", -1);
+		for (int i = 0; i < pieces.length; i++) {
+			if (i > 0) {
+				concat.append(", \"'\", ");
+			}
+			concat.append('\'').append(pieces[i]).append('\'');
+		}
+		return concat.append(')').toString();
+	}
+
+	static String cssLiteral(String value) {
+		return "'" + value.replace("\\", "\\\\").replace("'", "\\'").replace("\n", "\\a ") + "'";
+	}
+
+	/**
+	 * Translates //tag[@a='v'][contains(@b,'w') and starts-with(@c,'x')]/tag...
+	 * to CSS, null for anything else
+	 */
+	static String toCss(String xpath) {
+		StringBuilder css = new StringBuilder();
+		int at = 0;
+		Matcher step = STEP.matcher(xpath);
+		while (at < xpath.length()) {
+			if (!step.find(at) || step.start() != at || (at == 0 && !"//".equals(step.group(1)))) {
+				return null;
+			}
+			if (at > 0) {
+				css.append("//".equals(step.group(1)) ? " " : " > ");
+			}
+			css.append(step.group(2));
+			at = step.end();
+
+			while (at < xpath.length() && xpath.charAt(at) == '[') {
+				int end = predicateEnd(xpath, at);
+				if (end < 0) {
+					return null;
+				}
+				String conditions = predicate(xpath.substring(at + 1, end));
+				if (conditions == null) {
+					return null;
+				}
+				css.append(conditions);
+				at = end + 1;
+			}
+		}
+		return css.length() > 0 ? css.toString() : null;
+	}
+
+	// Index of the ] closing the predicate opened at start, skipping literals
+	private static int predicateEnd(String xpath, int start) {
+		char quote = 0;
+		for (int i = start + 1; i < xpath.length(); i++) {
+			char c = xpath.charAt(i);
+			if (quote != 0) {
+				if (c == quote) {
+					quote = 0;
+				}
+			} else if (c == '\'' || c == '"') {
+				quote = c;
+			} else if (c == '[') {
+				return -1;
+			} else if (c == ']') {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	private static String predicate(String text) {
+		StringBuilder css = new StringBuilder();
+		Cursor cursor = new Cursor(text);
+		do {
+			String condition = condition(cursor);
+			if (condition == null) {
+				return null;
+			}
+			css.append(condition);
+		} while (cursor.keyword("and"));
+		return cursor.atEnd() ? css.toString() : null;
+	}
+
+	private static String condition(Cursor cursor) {
+		String operator;
+		if (cursor.keyword("contains")) {
+			operator = "*=";
+		} else if (cursor.keyword("starts-with")) {
+			operator = "^=";
+		} else {
+			String name = cursor.attribute();
+			if (name == null) {
+				return null;
+			}
+			if (!cursor.symbol('=')) {
+				return "[" + name + "]";
+			}
+			String value = cursor.literal();
+			return value != null ? "[" + name + "=" + value + "]" : null;
+		}
+
+		if (!cursor.symbol('(')) {
+			return null;
+		}
+		String name = cursor.attribute();
+		if (name == null || !cursor.symbol(',')) {
+			return null;
+		}
+		String value = cursor.literal();
+		// An empty substring matches every element in XPath and none in CSS
+		if (value == null || value.length() <= 2 || !cursor.symbol(')')) {
+			return null;
+		}
+		return "[" + name + operator + value + "]";
+	}
+
+	/**
+	 * Reads the tokens of one predicate
+	 */
+	private static class Cursor {
+
+		final String text;
+
+		int at;
+
+		Cursor(String text) {
+			this.text = text;
+		}
+
+		void skipSpace() {
+			while (at < text.length() && Character.isWhitespace(text.charAt(at))) {
+				at++;
+			}
+		}
+
+		boolean atEnd() {
+			skipSpace();
+			return at == text.length();
+		}
+
+		boolean symbol(char c) {
+			skipSpace();
+			if (at < text.length() && text.charAt(at) == c) {
+				at++;
+				return true;
+			}
+			return false;
+		}
+
+		boolean keyword(String word) {
+			skipSpace();
+			int end = at + word.length();
+			if (text.startsWith(word, at) && (end == text.length() || !isNameChar(text.charAt(end)))) {
+				at = end;
+				return true;
+			}
+			return false;
+		}
+
+		// @name, as the CSS attribute name
+		String attribute() {
+			if (!symbol('@')) {
+				return null;
+			}
+			Matcher name = NAME.matcher(text);
+			if (!name.find(at) || name.start() != at) {
+				return null;
+			}
+			at = name.end();
+			return name.group();
+		}
+
+		// 'value' or "value", as a CSS string
+		String literal() {
+			skipSpace();
+			if (at >= text.length() || (text.charAt(at) != '\'' && text.charAt(at) != '"')) {
+				return null;
+			}
+			int end = text.indexOf(text.charAt(at), at + 1);
+			if (end < 0) {
+				return null;
+			}
+			String value = text.substring(at + 1, end);
+			at = end + 1;
+			return value.length() == 1 && value.charAt(0) == MARK ? "'" + MARK + "'" : cssLiteral(value);
+		}
+
+		private static boolean isNameChar(char c) {
+			return Character.isLetterOrDigit(c) || c == '-' || c == '_';
+		}
+	}
+
+}
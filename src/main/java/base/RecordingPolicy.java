@@ -0,0 +1,177 @@
+package base;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.openqa.selenium.OutputType;
+import org.openqa.selenium.TakesScreenshot;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+
+/**
+ * What is kept of a scenario to look at when it fails (recordingPolicy in
+ * config.properties):
+ *
+ * <pre>
+ * always            every scenario is recorded, as before
+ * onRetry           only a scenario run again after it failed is recorded
+ * screenshotBuffer  no recording; a screenshot after each step is kept in memory
+ *                   for the last screenshotBufferSteps steps and stored only
+ *                   when the scenario fails
+ * </pre>
+ */
+public final class RecordingPolicy {
+
+	/**
+	 * Recording mode of the run
+	 */
+	public enum Mode {
+		ALWAYS, ON_RETRY, SCREENSHOT_BUFFER;
+
+		/**
+		 * @param value always, onRetry or screenshotBuffer, in any case
+		 */
+		public static Mode parse(String value) {
+			String name = value.trim().replaceAll("[-_]", "");
+			for (Mode mode : values()) {
+				if (mode.name().replace("_", "").equalsIgnoreCase(name)) {
+					return mode;
+				}
+			}
+			throw new IllegalArgumentException(
+					"Unknown recordingPolicy " + value + ", expected always, onRetry or screenshotBuffer");
+		}
+	}
+
+	private static volatile Mode mode = Mode.ALWAYS;
+
+	private static volatile int bufferSteps = 10;
+
+	// Scenarios of the run that failed at least once, by id
+	private static final Set<String> FAILED = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+
+	// Last frames of the scenario on the thread, oldest first
+	private static final ThreadLocal<Deque<Frame>> FRAMES = new ThreadLocal<Deque<Frame>>() {
+
+		@Override
+		protected Deque<Frame> initialValue() {
+			return new ArrayDeque<Frame>();
+		}
+	};
+
+	// Steps of the scenario on the thread
+	private static final ThreadLocal<Integer> STEP = new ThreadLocal<Integer>();
+
+	private RecordingPolicy() {
+	}
+
+	/**
+	 * One screenshot of the buffer
+	 */
+	private static final class Frame {
+
+		private final int step;
+
+		private final byte[] content;
+
+		private final String extension;
+
+		Frame(int step, byte[] content, String extension) {
+			this.step = step;
+			this.content = content;
+			this.extension = extension;
+		}
+	}
+
+	/**
+	 * @param recordingPolicy      always, onRetry or screenshotBuffer
+	 * @param screenshotBufferSteps steps kept by the screenshot buffer
+	 */
+	public static void configure(String recordingPolicy, int screenshotBufferSteps) {
+		mode = Mode.parse(recordingPolicy);
+		bufferSteps = Math.max(1, screenshotBufferSteps);
+	}
+
+	public static Mode getMode() {
+		return mode;
+	}
+
+	/**
+	 * To know if a scenario about to start is to be recorded
+	 *
+	 * @param scenarioId id of the Cucumber scenario
+	 */
+	public static boolean shouldRecord(String scenarioId) {
+		return mode == Mode.ALWAYS || (mode == Mode.ON_RETRY && FAILED.contains(scenarioId));
+	}
+
+	/**
+	 * To note a failed scenario, recorded when it is run again
+	 */
+	public static void failed(String scenarioId) {
+		FAILED.add(scenarioId);
+	}
+
+	/**
+	 * To keep a screenshot of the step that just ran, dropping the oldest beyond
+	 * screenshotBufferSteps; does nothing outside screenshotBuffer mode
+	 *
+	 * @param driver session of the scenario
+	 */
+	public static void captureStep(WebDriver driver) {
+		if (mode != Mode.SCREENSHOT_BUFFER || driver == null) {
+			return;
+		}
+		int step = STEP.get() == null ? 1 : STEP.get() + 1;
+		STEP.set(step);
+		Frame frame;
+		try {
+			if (driver instanceof TakesScreenshot) {
+				frame = new Frame(step, ((TakesScreenshot) driver).getScreenshotAs(OutputType.BYTES), "png");
+			} else {
+				// HtmlUnit does not render, keep the page source instead
+				frame = new Frame(step, driver.getPageSource().getBytes(StandardCharsets.UTF_8), "html");
+			}
+		} catch (WebDriverException e) {
+			// A screen that cannot be captured must not fail the step
+			return;
+		}
+		Deque<Frame> frames = FRAMES.get();
+		frames.addLast(frame);
+		while (frames.size() > bufferSteps) {
+			frames.removeFirst();
+		}
+	}
+
+	/**
+	 * To store the buffered screenshots of the failed scenario of the current
+	 * thread in the {@link ArtifactStore}
+	 *
+	 * @return file per step, by step name, oldest first
+	 */
+	public static Map<String, File> writeBuffer() {
+		Map<String, File> written = new LinkedHashMap<String, File>();
+		for (Frame frame : FRAMES.get()) {
+			File artifact = "png".equals(frame.extension) ? ArtifactStore.storeScreenshot(frame.content)
+					: ArtifactStore.storePageSource(new String(frame.content, StandardCharsets.UTF_8));
+			written.put("Step " + frame.step, artifact);
+		}
+		return written;
+	}
+
+	/**
+	 * To drop the buffer of the current thread, when its scenario ends
+	 */
+	public static void clear() {
+		FRAMES.remove();
+		STEP.remove();
+	}
+
+}
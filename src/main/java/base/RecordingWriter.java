@@ -0,0 +1,102 @@
+package base;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Base64;
+
+import org.apache.commons.io.input.CharSequenceInputStream;
+
+/**
+ * Writes the screen recordings Appium hands back, off the scenario thread. The
+ * Base64 payload is decoded as a stream into a .part file next to the target,
+ * which is renamed once complete, so no decoded copy of the video is held in
+ * heap and a half-written .mp4 is never seen.
+ *
+ * The writes go through the bounded writers of {@link ArtifactStore}: when too
+ * many wait, the scenario thread writes its own, so pending payloads cannot
+ * pile up in heap.
+ *
+ * The report links the .mp4 before it is written; when a recording cannot be
+ * fetched or written, a note saying why is written next to it instead (see
+ * {@link #failureNote(File)}).
+ */
+public final class RecordingWriter {
+
+	private RecordingWriter() {
+	}
+
+	/**
+	 * To write a recording in the background
+	 *
+	 * @param media  Base64 video returned by stopRecordingScreen
+	 * @param target .mp4 file, its directories are created
+	 */
+	public static void submit(final String media, final File target) {
+		ArtifactStore.execute(new Runnable() {
+
+			@Override
+			public void run() {
+				try {
+					write(media, target);
+				} catch (IOException | RuntimeException e) {
+					new File(target.getAbsoluteFile().getParentFile(), target.getName() + ".part").delete();
+					failed(target, "not written: " + e);
+				}
+			}
+		});
+	}
+
+	/**
+	 * To get the note written in place of a recording that could not be fetched
+	 * or written
+	 *
+	 * @param target .mp4 file of the recording
+	 */
+	public static File failureNote(File target) {
+		return new File(target.getPath() + ".txt");
+	}
+
+	/**
+	 * To note why a recording is missing, in its {@link #failureNote(File)}
+	 *
+	 * @param target .mp4 file that was not written
+	 * @param reason what went wrong
+	 */
+	public static void failed(File target, String reason) {
+		System.out.println("Recording " + target + " " + reason);
+		File note = failureNote(target);
+		File directory = note.getAbsoluteFile().getParentFile();
+		try {
+			if (!directory.isDirectory() && !directory.mkdirs() && !directory.isDirectory()) {
+				throw new IOException("Cannot create " + directory);
+			}
+			Files.write(note.toPath(), ("Recording " + reason + System.lineSeparator()).getBytes(StandardCharsets.UTF_8));
+		} catch (IOException e) {
+			System.out.println("Note " + note + " not written: " + e);
+		}
+	}
+
+	/**
+	 * To decode a recording straight to disk
+	 *
+	 * @param media  Base64 video
+	 * @param target file written
+	 */
+	public static void write(String media, File target) throws IOException {
+		File directory = target.getAbsoluteFile().getParentFile();
+		if (!directory.isDirectory() && !directory.mkdirs() && !directory.isDirectory()) {
+			throw new IOException("Cannot create " + directory);
+		}
+		File part = new File(directory, target.getName() + ".part");
+		try (InputStream video = Base64.getMimeDecoder()
+				.wrap(new CharSequenceInputStream(media, StandardCharsets.US_ASCII, 64 * 1024))) {
+			Files.copy(video, part.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		}
+		Files.move(part.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+	}
+
+}
@@ -0,0 +1,407 @@
+package base;
+
+import java.net.URL;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openqa.selenium.Capabilities;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.remote.RemoteWebDriver;
+
+
+/**
+ * Keeps live Appium or HtmlUnit sessions keyed by endpoint and capabilities, so
+ * that a session is reset and handed to the next scenario instead of being quit
+ * and created again. Resetting, recycling and preparing the next session
+ * (loading the app URL) run on a background warm-up stage while the current
+ * scenario finishes, so the next scenario gets a ready session.
+ */
+public final class SessionPool {
+
+	/**
+	 * Brings a session to the state the first step of a scenario expects
+	 */
+	public interface Preparer {
+		void prepare(WebDriver driver);
+	}
+
+	private static final Map<String, Deque<PooledSession>> IDLE = new HashMap<String, Deque<PooledSession>>();
+
+	private static final Map<WebDriver, PooledSession> LEASED = new IdentityHashMap<WebDriver, PooledSession>();
+
+	// Sessions per key that are leased, idle or warming up
+	private static final Map<String, Integer> LIVE = new HashMap<String, Integer>();
+
+	private static final ExecutorService WARM_UP = Executors.newCachedThreadPool(new ThreadFactory() {
+
+		private final AtomicInteger count = new AtomicInteger();
+
+		@Override
+		public Thread newThread(Runnable runnable) {
+			Thread thread = new Thread(runnable, "session-warm-up-" + count.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		}
+	});
+
+	// Number of scenarios a session may run before it is recreated
+	private static int reuseLimit = 10;
+
+	// Number of sessions the pool may keep per key (devices behind the endpoint)
+	private static int maxSessions = 1;
+
+	private SessionPool() {
+	}
+
+	private static class PooledSession {
+
+		final String key;
+
+		final URL appiumUrl;
+
+		final Capabilities capabilities;
+
+		final Preparer preparer;
+
+		volatile WebDriver driver;
+
+		Future<Boolean> warmUp;
+
+		// Run on the warm-up stage before the session is reset, see beforeRelease
+		Runnable beforeRelease;
+
+		int uses;
+
+		PooledSession(String key, URL appiumUrl, Capabilities capabilities, Preparer preparer) {
+			this.key = key;
+			this.appiumUrl = appiumUrl;
+			this.capabilities = capabilities;
+			this.preparer = preparer;
+		}
+	}
+
+	/**
+	 * To set the number of scenarios a session may run before it is recreated
+	 *
+	 * @param limit reuse limit, 1 creates a new session for every scenario
+	 */
+	public static synchronized void setReuseLimit(int limit) {
+		reuseLimit = Math.max(1, limit);
+	}
+
+	/**
+	 * To set the number of sessions that may be open at once for the same
+	 * endpoint and capabilities
+	 *
+	 * @param size pool size, usually the number of devices behind the endpoint
+	 */
+	public static synchronized void setMaxSessions(int size) {
+		maxSessions = Math.max(1, size);
+	}
+
+	/**
+	 * To get a prepared session for the capabilities. A warmed-up session is
+	 * handed over as soon as its warm-up is done, otherwise a session is created
+	 * and prepared on the calling thread.
+	 *
+	 * @param appiumUrl    URL of the Appium server
+	 * @param capabilities capabilities of the session
+	 * @param preparer     brings a new or reset session to the app start page
+	 * @return driver, or null when the platform is not supported
+	 */
+	public static WebDriver acquire(URL appiumUrl, Capabilities capabilities, Preparer preparer) {
+		String key = keyOf(appiumUrl, capabilities);
+
+		PooledSession session;
+		while ((session = pollIdle(key)) != null) {
+			if (awaitWarmUp(session) && isHealthy(session.driver)) {
+				break;
+			}
+			discard(session);
+		}
+
+		if (session == null) {
+			session = new PooledSession(key, appiumUrl, capabilities, preparer);
+			synchronized (SessionPool.class) {
+				LIVE.put(key, live(key) + 1);
+			}
+			boolean ready = false;
+			try {
+				session.driver = DriverFactory.createDriver(appiumUrl, capabilities);
+				if (session.driver != null) {
+					prepare(session);
+					ready = true;
+				}
+			} finally {
+				if (!ready) {
+					discard(session);
+				}
+			}
+			if (!ready) {
+				return null;
+			}
+		}
+
+		synchronized (SessionPool.class) {
+			session.uses++;
+			LEASED.put(session.driver, session);
+		}
+		return session.driver;
+	}
+
+	/**
+	 * To start a session for an upcoming scenario in the background, when the
+	 * pool has room for one more session of the capabilities
+	 *
+	 * @param appiumUrl    URL of the Appium server
+	 * @param capabilities capabilities of the session
+	 * @param preparer     brings the new session to the app start page
+	 */
+	public static void warmUp(URL appiumUrl, Capabilities capabilities, Preparer preparer) {
+		String key = keyOf(appiumUrl, capabilities);
+		final PooledSession session = new PooledSession(key, appiumUrl, capabilities, preparer);
+
+		synchronized (SessionPool.class) {
+			if (live(key) >= maxSessions) {
+				return;
+			}
+			LIVE.put(key, live(key) + 1);
+			session.warmUp = WARM_UP.submit(new Callable<Boolean>() {
+
+				@Override
+				public Boolean call() {
+					return create(session);
+				}
+			});
+			idle(key).addLast(session);
+		}
+	}
+
+	/**
+	 * To run a last command on a leased session off the scenario thread, on the
+	 * warm-up stage once the session is released and before it is reset, e.g.
+	 * stopping and fetching a screen recording
+	 *
+	 * @param driver session acquired from the pool, the task runs at once when
+	 *               it is not pooled
+	 * @param task   command to run
+	 */
+	public static void beforeRelease(WebDriver driver, Runnable task) {
+		synchronized (SessionPool.class) {
+			PooledSession session = LEASED.get(driver);
+			if (session != null) {
+				session.beforeRelease = task;
+				return;
+			}
+		}
+		task.run();
+	}
+
+	/**
+	 * To give a session back to the pool once the scenario is over. The session
+	 * is reset and prepared for the next scenario in the background, or
+	 * replaced by a new one when it has reached the reuse limit.
+	 *
+	 * @param driver session acquired from the pool
+	 */
+	public static void release(final WebDriver driver) {
+		if (driver == null) {
+			return;
+		}
+
+		synchronized (SessionPool.class) {
+			final PooledSession session = LEASED.remove(driver);
+			if (session == null) {
+				quit(driver);
+				return;
+			}
+
+			final Runnable last = session.beforeRelease;
+			session.beforeRelease = null;
+			if (session.uses >= reuseLimit) {
+				final PooledSession replacement = new PooledSession(session.key, session.appiumUrl,
+						session.capabilities, session.preparer);
+				replacement.warmUp = WARM_UP.submit(new Callable<Boolean>() {
+
+					@Override
+					public Boolean call() {
+						runLast(last);
+						// The device is free only once the old session is gone
+						quit(driver);
+						return create(replacement);
+					}
+				});
+				idle(session.key).addLast(replacement);
+			} else {
+				session.warmUp = WARM_UP.submit(new Callable<Boolean>() {
+
+					@Override
+					public Boolean call() {
+						runLast(last);
+						try {
+							return reset(driver) && prepare(session);
+						} catch (RuntimeException e) {
+							e.printStackTrace();
+							return false;
+						}
+					}
+				});
+				idle(session.key).addFirst(session);
+			}
+		}
+	}
+
+	/**
+	 * To quit every idle session, called once the suite is finished
+	 */
+	public static void shutdown() {
+		List<PooledSession> sessions = new ArrayList<PooledSession>();
+		synchronized (SessionPool.class) {
+			for (Deque<PooledSession> idle : IDLE.values()) {
+				sessions.addAll(idle);
+			}
+			IDLE.clear();
+		}
+		for (PooledSession session : sessions) {
+			awaitWarmUp(session);
+			discard(session);
+		}
+	}
+
+	private static synchronized PooledSession pollIdle(String key) {
+		Deque<PooledSession> idle = IDLE.get(key);
+		return idle == null ? null : idle.poll();
+	}
+
+	private static Deque<PooledSession> idle(String key) {
+		Deque<PooledSession> idle = IDLE.get(key);
+		if (idle == null) {
+			idle = new ArrayDeque<PooledSession>();
+			IDLE.put(key, idle);
+		}
+		return idle;
+	}
+
+	private static int live(String key) {
+		Integer count = LIVE.get(key);
+		return count == null ? 0 : count;
+	}
+
+	private static boolean create(PooledSession session) {
+		try {
+			session.driver = DriverFactory.createDriver(session.appiumUrl, session.capabilities);
+			return session.driver != null && prepare(session);
+		} catch (RuntimeException e) {
+			e.printStackTrace();
+			return false;
+		}
+	}
+
+	/**
+	 * To run the preparer with the session bound to the current thread, as the
+	 * TestBase helpers it calls expect
+	 */
+	private static boolean prepare(PooledSession session) {
+		WebDriver previous = DriverContext.getDriver();
+		DriverContext.setDriver(session.driver);
+		try {
+			if (session.preparer != null) {
+				session.preparer.prepare(session.driver);
+			}
+			return true;
+		} finally {
+			DriverContext.setDriver(previous);
+		}
+	}
+
+	private static boolean awaitWarmUp(PooledSession session) {
+		if (session.warmUp == null) {
+			return true;
+		}
+		try {
+			return session.warmUp.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return false;
+		} catch (ExecutionException e) {
+			e.printStackTrace();
+			return false;
+		}
+	}
+
+	private static void discard(PooledSession session) {
+		synchronized (SessionPool.class) {
+			LIVE.put(session.key, Math.max(0, live(session.key) - 1));
+		}
+		if (session.driver != null) {
+			quit(session.driver);
+			session.driver = null;
+		}
+	}
+
+	/**
+	 * To clear cookies and web storage so the next scenario starts logged out
+	 */
+	private static boolean reset(WebDriver driver) {
+		try {
+			driver.switchTo().defaultContent();
+			driver.manage().deleteAllCookies();
+			((JavascriptExecutor) driver).executeScript(
+					"try { window.localStorage.clear(); window.sessionStorage.clear(); } catch (e) {}");
+			return true;
+		} catch (WebDriverException e) {
+			e.printStackTrace();
+			return false;
+		}
+	}
+
+	private static boolean isHealthy(WebDriver driver) {
+		try {
+			if (driver instanceof RemoteWebDriver && ((RemoteWebDriver) driver).getSessionId() == null) {
+				return false;
+			}
+			return driver.getCurrentUrl() != null;
+		} catch (WebDriverException e) {
+			return false;
+		}
+	}
+
+	private static void runLast(Runnable last) {
+		if (last == null) {
+			return;
+		}
+		try {
+			last.run();
+		} catch (RuntimeException e) {
+			e.printStackTrace();
+		}
+	}
+
+	private static void quit(WebDriver driver) {
+		try {
+			driver.quit();
+		} catch (WebDriverException e) {
+			e.printStackTrace();
+		}
+	}
+
+	private static String keyOf(URL appiumUrl, Capabilities capabilities) {
+		return appiumUrl + " " + new TreeMap<String, Object>(capabilities.asMap());
+	}
+
+}
@@ -0,0 +1,18 @@
+package base;
+
+/**
+ * Signals a page object can wait for after an action, instead of sleeping for
+ * a fixed time
+ */
+public enum Settle {
+
+	/** No DOM mutation for the quiet window and the document is loaded */
+	DOM_QUIET,
+
+	/** No fetch or XMLHttpRequest in flight */
+	NETWORK_IDLE,
+
+	/** The URL differs from the one seen before the last tap */
+	URL_CHANGE
+
+}
@@ -0,0 +1,198 @@
+package base;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+
+/**
+ * Waits for the page to settle after an action. A script injected into the
+ * page records the time of the last DOM mutation through a MutationObserver and
+ * counts the fetch and XMLHttpRequest calls in flight; the engine polls it
+ * until the requested {@link Settle} signals hold or the settle timeout is
+ * reached. A timeout is not a failure, the next wait or assertion decides.
+ */
+public final class SettleEngine {
+
+	private static final List<Settle> DEFAULT_SIGNALS = Arrays.asList(Settle.DOM_QUIET, Settle.NETWORK_IDLE);
+
+	private static final long POLL_MILLIS = 50;
+
+	// Installs the observer once per document and reports the page state
+	private static final String PROBE_SCRIPT = "var s = window.__odSettle;"
+			+ "if (!s) {"
+			+ "  s = window.__odSettle = { pending: 0, last: Date.now(), observer: false };"
+			+ "  var touch = function() { s.last = Date.now(); };"
+			+ "  try {"
+			+ "    new MutationObserver(touch).observe(document, { childList: true, subtree: true, attributes: true, characterData: true });"
+			+ "    s.observer = true;"
+			+ "  } catch (e) {}"
+			+ "  if (window.fetch) {"
+			+ "    var fetch = window.fetch;"
+			+ "    window.fetch = function() {"
+			+ "      s.pending++; touch();"
+			+ "      var done = function() { s.pending--; touch(); };"
+			+ "      return fetch.apply(this, arguments).then(function(r) { done(); return r; }, function(e) { done(); throw e; });"
+			+ "    };"
+			+ "  }"
+			+ "  if (window.XMLHttpRequest) {"
+			+ "    var send = XMLHttpRequest.prototype.send;"
+			+ "    XMLHttpRequest.prototype.send = function() {"
+			+ "      var xhr = this, open = true;"
+			+ "      s.pending++; touch();"
+			+ "      xhr.addEventListener('readystatechange', function() {"
+			+ "        if (xhr.readyState === 4 && open) { open = false; s.pending--; touch(); }"
+			+ "      });"
+			+ "      return send.apply(this, arguments);"
+			+ "    };"
+			+ "  }"
+			+ "}"
+			+ "return { url: location.href, ready: document.readyState, pending: s.pending,"
+			+ "  quiet: Date.now() - s.last, observer: s.observer };";
+
+	// URL seen by the last arm() of the thread, for Settle.URL_CHANGE
+	private static final ThreadLocal<String> ARMED_URL = new ThreadLocal<String>();
+
+	private static long timeoutMillis = 10_000;
+
+	private static long quietMillis = 250;
+
+	private static long busyMillis = 2_000;
+
+	private SettleEngine() {
+	}
+
+	/**
+	 * To set the settle limits, read from config.properties
+	 *
+	 * @param timeout longest wait for the page to settle, in milliseconds
+	 * @param quiet   time without DOM mutation after which the DOM is taken as
+	 *                settled, in milliseconds
+	 * @param busy    longest wait for the DOM to go quiet once every other signal
+	 *                holds, in milliseconds; a spinner, carousel or timer keeps
+	 *                some pages changing for good
+	 */
+	public static synchronized void configure(long timeout, long quiet, long busy) {
+		timeoutMillis = Math.max(0, timeout);
+		quietMillis = Math.max(0, quiet);
+		busyMillis = Math.max(0, busy);
+	}
+
+	/**
+	 * To install the observer and remember the current URL, called right before
+	 * an action whose effects are waited for
+	 *
+	 * @param driver session of the scenario
+	 */
+	public static void arm(WebDriver driver) {
+		Map<String, Object> state = probe(driver);
+		ARMED_URL.set(state != null ? (String) state.get("url") : null);
+		ElementCache.pageTouched();
+	}
+
+	/**
+	 * To wait until every signal holds, DOM_QUIET and NETWORK_IDLE when none is
+	 * given
+	 *
+	 * @param driver  session of the scenario
+	 * @param signals signals to wait for
+	 * @return true when the page settled before the timeout
+	 */
+	public static boolean await(WebDriver driver, Settle... signals) {
+		long start = StepMetrics.waiting();
+		try {
+			return settle(driver, signals);
+		} finally {
+			StepMetrics.waited(start);
+		}
+	}
+
+	private static boolean settle(WebDriver driver, Settle... signals) {
+		List<Settle> wanted = signals.length == 0 ? DEFAULT_SIGNALS : Arrays.asList(signals);
+		List<Settle> others = new ArrayList<Settle>(wanted);
+		others.remove(Settle.DOM_QUIET);
+		long deadline = System.currentTimeMillis() + timeoutMillis;
+		// Since when only the DOM has not gone quiet, -1 while other signals are missing
+		long busySince = -1;
+		Map<String, Object> state;
+		do {
+			state = probe(driver);
+			if (state == null && !(driver instanceof JavascriptExecutor)) {
+				return true;
+			}
+			if (state != null && holds(state, wanted)) {
+				return true;
+			}
+			if (state != null && wanted.contains(Settle.DOM_QUIET) && "complete".equals(state.get("ready"))
+					&& holds(state, others)) {
+				long now = System.currentTimeMillis();
+				if (busySince < 0) {
+					busySince = now;
+				} else if (now - busySince >= busyMillis) {
+					System.out.println("DOM still changing " + busyMillis + " ms after the page loaded, going on: "
+							+ state.get("url"));
+					return false;
+				}
+			} else {
+				busySince = -1;
+			}
+			try {
+				Thread.sleep(POLL_MILLIS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return false;
+			}
+		} while (System.currentTimeMillis() < deadline);
+
+		System.out.println("Page did not settle (" + wanted + ") within " + timeoutMillis + " ms: " + state);
+		return false;
+	}
+
+	private static boolean holds(Map<String, Object> state, List<Settle> signals) {
+		for (Settle signal : signals) {
+			switch (signal) {
+			case DOM_QUIET:
+				if (!"complete".equals(state.get("ready"))) {
+					return false;
+				}
+				if (Boolean.TRUE.equals(state.get("observer"))
+						&& ((Number) state.get("quiet")).longValue() < quietMillis) {
+					return false;
+				}
+				break;
+			case NETWORK_IDLE:
+				if (((Number) state.get("pending")).longValue() > 0) {
+					return false;
+				}
+				break;
+			case URL_CHANGE:
+				String armed = ARMED_URL.get();
+				if (armed != null && armed.equals(state.get("url"))) {
+					return false;
+				}
+				break;
+			}
+		}
+		return true;
+	}
+
+	@SuppressWarnings("unchecked")
+	private static Map<String, Object> probe(WebDriver driver) {
+		if (!(driver instanceof JavascriptExecutor)) {
+			return null;
+		}
+		try {
+			Map<String, Object> state = (Map<String, Object>) ((JavascriptExecutor) driver).executeScript(PROBE_SCRIPT);
+			ElementCache.pageSeen((String) state.get("url"));
+			return state;
+		} catch (WebDriverException e) {
+			// The page is being replaced, try again on the next poll
+			return null;
+		}
+	}
+
+}
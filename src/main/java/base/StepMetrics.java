@@ -0,0 +1,126 @@
+package base;
+
+/**
+ * Where the time of the step running on the current thread goes, read by the
+ * step metrics plugin of the runner: TestBase.delay sleeps, explicit waits
+ * (WaitPolicy, SettleEngine, {@link TimedWait}), lookups made outside these
+ * waits, and the number of driver commands. Waits nested in a wait are counted
+ * once, by the outer wait.
+ */
+public final class StepMetrics {
+
+	private static final ThreadLocal<Counters> COUNTERS = new ThreadLocal<Counters>() {
+
+		@Override
+		protected Counters initialValue() {
+			return new Counters();
+		}
+	};
+
+	private StepMetrics() {
+	}
+
+	/**
+	 * Counters of one step
+	 */
+	public static final class Counters {
+
+		private long delayNanos;
+
+		private long explicitWaitNanos;
+
+		private long lookupNanos;
+
+		private int commands;
+
+		private long commandNanos;
+
+		// Nesting of the explicit waits running
+		private int waitDepth;
+
+		public long getDelayMillis() {
+			return delayNanos / 1_000_000;
+		}
+
+		public long getExplicitWaitMillis() {
+			return explicitWaitNanos / 1_000_000;
+		}
+
+		/**
+		 * Time of the lookups made outside an explicit wait
+		 */
+		public long getLookupMillis() {
+			return lookupNanos / 1_000_000;
+		}
+
+		public int getCommands() {
+			return commands;
+		}
+
+		/**
+		 * Time of the driver commands, waits included
+		 */
+		public long getCommandMillis() {
+			return commandNanos / 1_000_000;
+		}
+	}
+
+	/**
+	 * To start counting a new step on the current thread
+	 */
+	public static void reset() {
+		COUNTERS.remove();
+	}
+
+	/**
+	 * To get the counters of the step of the current thread
+	 */
+	public static Counters current() {
+		return COUNTERS.get();
+	}
+
+	/**
+	 * To count a sleep of TestBase.delay
+	 */
+	public static void delayed(long nanos) {
+		COUNTERS.get().delayNanos += nanos;
+	}
+
+	/**
+	 * To mark the start of an explicit wait
+	 *
+	 * @return start time for {@link #waited(long)}
+	 */
+	public static long waiting() {
+		COUNTERS.get().waitDepth++;
+		return System.nanoTime();
+	}
+
+	/**
+	 * To mark the end of an explicit wait
+	 *
+	 * @param start value of {@link #waiting()}
+	 */
+	public static void waited(long start) {
+		Counters counters = COUNTERS.get();
+		if (--counters.waitDepth == 0) {
+			counters.explicitWaitNanos += System.nanoTime() - start;
+		}
+	}
+
+	/**
+	 * To count a driver command
+	 *
+	 * @param nanos  time the command took
+	 * @param lookup whether it looked up elements
+	 */
+	public static void command(long nanos, boolean lookup) {
+		Counters counters = COUNTERS.get();
+		counters.commands++;
+		counters.commandNanos += nanos;
+		if (lookup && counters.waitDepth == 0) {
+			counters.lookupNanos += nanos;
+		}
+	}
+
+}
@@ -9,20 +9,20 @@ import java.text.DateFormat;
 import java.text.SimpleDateFormat;
 import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
 
 import com.gargoylesoftware.htmlunit.ElementNotFoundException;
 
 import cucumber.api.Scenario;
 
 //import org.apache.commons.codec.binary.Base64;
-import java.util.Base64;
-import org.apache.commons.io.FileUtils;
 import org.apache.tools.ant.property.GetProperty;
 import org.openqa.selenium.By;
 import org.openqa.selenium.ElementClickInterceptedException;
@@ -37,17 +37,15 @@ import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.WebDriverException;
 import org.openqa.selenium.WebElement;
 import org.openqa.selenium.interactions.Actions;
+import org.openqa.selenium.interactions.HasInputDevices;
 import org.openqa.selenium.interactions.Keyboard;
 import org.openqa.selenium.support.ui.ExpectedCondition;
 import org.openqa.selenium.support.ui.ExpectedConditions;
-import org.openqa.selenium.support.ui.FluentWait;
 import org.openqa.selenium.support.ui.Select;
-import org.openqa.selenium.support.ui.Wait;
 import org.openqa.selenium.support.ui.WebDriverWait;
 import org.testng.Assert;
 import io.appium.java_client.AppiumDriver;
 import io.appium.java_client.MobileBy;
-import io.appium.java_client.MobileElement;
 import io.appium.java_client.TouchAction;
 import io.appium.java_client.android.AndroidStartScreenRecordingOptions;
 import io.appium.java_client.ios.IOSStartScreenRecordingOptions;
@@ -60,24 +58,72 @@ import io.appium.java_client.touch.offset.PointOption;
 @SuppressWarnings("deprecation")
 public class TestBase {
 
-	public static AppiumDriver<MobileElement> driver;
-
-	protected static WebDriverWait wait;
-
 	public static final String XPATH = "xpath";
 	public static final String ID = "id";
 
-	public TestBase() {
-		this.driver = driver;
+	// Key of the waits on an element already found, see WaitPolicy
+	private static final String ELEMENT_WAIT = "element";
+
+	/**
+	 * To get the driver of the scenario running on the current thread
+	 */
+	public WebDriver getDriver() {
+		return DriverContext.getDriver();
+	}
+
+	/**
+	 * To get the Appium session of the current thread
+	 *
+	 * @return driver, or null when the scenario runs on the HtmlUnit backend
+	 */
+	protected AppiumDriver<?> getAppiumDriver() {
+		WebDriver driver = getDriver();
+		return driver instanceof AppiumDriver ? (AppiumDriver<?>) driver : null;
+	}
+
+	/**
+	 * To check if the scenario runs on a device through Appium. Without one the
+	 * touch gestures fall back to JavaScript scrolling and clicks, and the app,
+	 * keyboard, context and screen recording helpers do nothing.
+	 */
+	public boolean isTouchDevice() {
+		return getAppiumDriver() != null;
+	}
+
+	/**
+	 * To get the platformName capability of the session, HtmlUnit for the
+	 * headless backend
+	 */
+	public Object getPlatformName() {
+		if (!isTouchDevice()) {
+			return DriverFactory.HTMLUNIT;
+		}
+		return getAppiumDriver().getCapabilities().getCapability("platformName");
+	}
+
+	/**
+	 * To get the default wait of the scenario running on the current thread
+	 */
+	protected WebDriverWait getWait() {
+		return DriverContext.getWait();
+	}
+
+	protected void setWait(WebDriverWait wait) {
+		DriverContext.setWait(wait);
 	}
 
 	/**
 	 * To reset the app after completion of a scenario
 	 */
 	public void resetApp() {
+		if (!isTouchDevice()) {
+			deleteCookies();
+			getDriver().navigate().refresh();
+			return;
+		}
 		try {
-			driver.resetApp();
-			wait = new WebDriverWait(driver, 30);
+			getAppiumDriver().resetApp();
+			setWait(new TimedWait(getDriver(), 30));
 		} catch (Exception e) {
 			e.printStackTrace();
 		}
@@ -89,9 +135,12 @@ public class TestBase {
 	 * @param bundleId
 	 */
 	public void activateApp(String bundleId) {
+		if (!isTouchDevice()) {
+			return;
+		}
 		try {
-			driver.activateApp(bundleId); // Setting - "com.apple.Preferences"
-			wait = new WebDriverWait(driver, 30);
+			getAppiumDriver().activateApp(bundleId); // Setting - "com.apple.Preferences"
+			setWait(new TimedWait(getDriver(), 30));
 		} catch (Exception e) {
 			e.printStackTrace();
 		}
@@ -103,7 +152,7 @@ public class TestBase {
 	public String getCurrentTitle() {
 		String title = "";
 		try {
-			title = driver.getTitle();
+			title = getDriver().getTitle();
 		} catch (Exception e) {
 			e.printStackTrace();
 		}
@@ -116,7 +165,7 @@ public class TestBase {
 	public String getCurrentURL() {
 		String currentURL = "";
 		try {
-			currentURL = driver.getCurrentUrl();
+			currentURL = getDriver().getCurrentUrl();
 		} catch (Exception e) {
 			e.printStackTrace();
 		}
@@ -128,9 +177,22 @@ public class TestBase {
 	 */
 	public void tearDown() {
 		try {
-			driver.quit();
+			getDriver().quit();
 		} catch (WebDriverException e) {
 			e.printStackTrace();
+		} finally {
+			DriverContext.clear();
+		}
+	}
+
+	/**
+	 * Give the session back to the pool so that the next scenario can reuse it
+	 */
+	public void releaseSession() {
+		try {
+			SessionPool.release(getDriver());
+		} finally {
+			DriverContext.clear();
 		}
 	}
 
@@ -139,8 +201,11 @@ public class TestBase {
 	 * seconds to run App in background
 	 */
 	public void runAppInBackground(Duration seconds) {
+		if (!isTouchDevice()) {
+			return;
+		}
 		try {
-			driver.runAppInBackground(seconds);
+			getAppiumDriver().runAppInBackground(seconds);
 		} catch (Exception e) {
 			e.printStackTrace();
 		}
@@ -150,40 +215,63 @@ public class TestBase {
 	 * To hide the keyboard in the app
 	 **/
 	public void hideKeyboard() {
+		if (!isTouchDevice()) {
+			return;
+		}
 		try {
-			driver.hideKeyboard();
+			getAppiumDriver().hideKeyboard();
 		} catch (WebDriverException e) {
 			e.printStackTrace();
 		}
 	}
 
+	/**
+	 * To wait for the page to settle after an action, instead of sleeping for a
+	 * fixed time. Without signals, waits for the DOM to go quiet and for no
+	 * request to be in flight.
+	 *
+	 * @param signals what the action is expected to lead to, e.g.
+	 *                Settle.URL_CHANGE for a tap that opens the next screen
+	 * @return true when the page settled before the settle timeout
+	 */
+	public boolean waitToSettle(Settle... signals) {
+		return SettleEngine.await(getDriver(), signals);
+	}
+
 	public void delay(long l) {
+		long start = System.nanoTime();
 		try {
 			Thread.sleep(l);
 		} catch (InterruptedException e) {
 			// TODO Auto-generated catch block
 			e.printStackTrace();
+		} finally {
+			StepMetrics.delayed(System.nanoTime() - start);
 		}
 	}
 
 	public void setContext(String value) {
-		Set<String> contextNames = driver.getContextHandles();
+		if (!isTouchDevice()) {
+			return;
+		}
+		Set<String> contextNames = getAppiumDriver().getContextHandles();
 		for (String contextName : contextNames) {
 			if (contextName.contains(value)) {
-				driver.context(contextName);
+				getAppiumDriver().context(contextName);
+				DriverContext.setNativeContext(contextName.startsWith("NATIVE"));
 			}
 		}
 	}
 
 	public void setBrowserScale(String scaleFactor) {
-		((JavascriptExecutor) driver).executeScript("document.body.style.transform='scale(scaleFactor)';");
-		wait = new WebDriverWait(driver, 30);
+		((JavascriptExecutor) getDriver()).executeScript("document.body.style.transform='scale(scaleFactor)';");
+		setWait(new TimedWait(getDriver(), 30));
 
 	}
 
 	// To verify if keypad is open
 	public boolean isKeyBoardOpen() {
-		Keyboard Element = driver.getKeyboard();
+		Keyboard Element = ((HasInputDevices) getDriver()).getKeyboard();
 		boolean isOpen = false;
 		try {
 			if (Element != null) {
@@ -205,8 +293,12 @@ public class TestBase {
 	 * Long press on a element to view sub-options
 	 **/
 	public void longPress(LongPressOptions element) {
+		if (!isTouchDevice()) {
+			System.out.println("Long press needs a touch device, skipped");
+			return;
+		}
 		@SuppressWarnings("rawtypes")
-		TouchAction action = new TouchAction(driver);
+		TouchAction action = new TouchAction(getAppiumDriver());
 		try {
 			action.longPress(element).release().perform();
 		} catch (Exception e) {
@@ -214,14 +306,14 @@ public class TestBase {
 		}
 	}
 
-	private static ExpectedCondition<MobileElement> elementToBeChecked(final MobileElement element) {
-		return new ExpectedCondition<MobileElement>() {
+	private static ExpectedCondition<WebElement> elementToBeChecked(final WebElement element) {
+		return new ExpectedCondition<WebElement>() {
 
 			public ExpectedCondition<WebElement> visibilityOfElement = ExpectedConditions.visibilityOf(element);
 
 			@Override
-			public MobileElement apply(WebDriver driver) {
-				MobileElement element = (MobileElement) visibilityOfElement.apply(driver);
+			public WebElement apply(WebDriver driver) {
+				WebElement element = visibilityOfElement.apply(driver);
 				try {
 					if (element != null && element.getAttribute("checked").equals("true")) {
 						return element;
@@ -240,32 +332,32 @@ public class TestBase {
 		};
 	}
 
-	public MobileElement waitForElementToBeClickable(MobileElement mobileElement) {
+	public WebElement waitForElementToBeClickable(WebElement mobileElement) {
+		if (ElementCache.isFresh(mobileElement) && mobileElement.isEnabled()) {
+			return mobileElement;
+		}
 
-		return (MobileElement) new WebDriverWait(driver, 10)
-				.until(ExpectedConditions.elementToBeClickable(mobileElement));
+		return WaitPolicy.until(getDriver(), ELEMENT_WAIT, ExpectedConditions.elementToBeClickable(mobileElement));
 
 	}
 
-	public MobileElement waitForElementToBeClickable(String inputElement) {
-		MobileElement mobileElement = driver.findElement(By.xpath(inputElement));
+	public WebElement waitForElementToBeClickable(String inputElement) {
 
-		return (MobileElement) new WebDriverWait(driver, 10)
-				.until(ExpectedConditions.elementToBeClickable(mobileElement));
+		return waitForElementToBeClickable(lookUp(inputElement));
 
 	}
 
 	public boolean waitForPageToBeLoaded() {
-		return ((JavascriptExecutor) driver).executeScript("return document.readyState").equals("loaded")
-				|| ((JavascriptExecutor) driver).executeScript("return document.readyState").equals("complete");
+		return ((JavascriptExecutor) getDriver()).executeScript("return document.readyState").equals("loaded")
+				|| ((JavascriptExecutor) getDriver()).executeScript("return document.readyState").equals("complete");
 	}
 
 	public void waitForElementToBeVisible(By by) {
-		wait.until(ExpectedConditions.visibilityOfElementLocated(by));
+		getWait().until(ExpectedConditions.visibilityOfElementLocated(by));
 	}
 
 	public void waitForElementToBeVisible(By by, int timeout) {
-		WebDriverWait wait = new WebDriverWait(driver, timeout);
+		WebDriverWait wait = new TimedWait(getDriver(), timeout);
 		try {
 			wait.until(ExpectedConditions.visibilityOfElementLocated(by));
 		} catch (Exception e) {
@@ -273,95 +365,107 @@ public class TestBase {
 		}
 	}
 
-	public MobileElement waitForElementToBeVisible(MobileElement element) {
-		return (MobileElement) new WebDriverWait(driver, 10).until(ExpectedConditions.visibilityOf(element));
+	public WebElement waitForElementToBeVisible(WebElement element) {
+		return new TimedWait(getDriver(), 10).until(ExpectedConditions.visibilityOf(element));
 	}
 
-	public MobileElement waitForElementToBeVisible(String xpath) {
-		MobileElement element = getElement(XPATH, xpath);
-		return (MobileElement) new WebDriverWait(driver, 10).until(ExpectedConditions.visibilityOf(element));
+	public WebElement waitForElementToBeVisible(String xpath) {
+		WebElement element = getElement(XPATH, xpath);
+		return new TimedWait(getDriver(), 10).until(ExpectedConditions.visibilityOf(element));
 	}
 
-	public MobileElement waitForVisibility(MobileElement e) {
-		Wait<WebDriver> wait = new FluentWait<WebDriver>(driver).withTimeout(Duration.ofSeconds(45))
-				.pollingEvery(Duration.ofSeconds(5)).ignoring(NoSuchElementException.class);
+	public WebElement waitForVisibility(WebElement e) {
+		if (ElementCache.isFresh(e)) {
+			return e;
+		}
 
-		return (MobileElement) wait.until(ExpectedConditions.visibilityOf(e));
+		return WaitPolicy.until(getDriver(), ELEMENT_WAIT, ExpectedConditions.visibilityOf(e));
 
 	}
 
-	public MobileElement waitForVisibility(By by) {
-		MobileElement e = driver.findElement(by);
-		Wait<WebDriver> wait = new FluentWait<WebDriver>(driver).withTimeout(Duration.ofSeconds(30))
-				.pollingEvery(Duration.ofSeconds(5)).ignoring(NoSuchElementException.class);
+	public WebElement waitForVisibility(By by) {
+		final WebDriver driver = getDriver();
 
-		return (MobileElement) wait.until(ExpectedConditions.visibilityOf(e));
+		return ElementCache.lookup(driver, by, locator -> WaitPolicy.until(driver, locator.toString(),
+				ExpectedConditions.visibilityOfElementLocated(locator)));
 
 	}
 
-	public void click_last(List<MobileElement> element) {
+	public void click_last(List<WebElement> element) {
 		waitForElementToBeClickable(getLast(element));
 		getLast(element).click();
 	}
 
-	public MobileElement getLast(List<MobileElement> element) {
+	public WebElement getLast(List<WebElement> element) {
 		return element.get(element.size() - 1);
 	}
 
-	public void waitForTextToBePresentInElement(MobileElement element, String text) {
-		wait.until(ExpectedConditions.textToBePresentInElement(element, text));
+	public void waitForTextToBePresentInElement(WebElement element, String text) {
+		getWait().until(ExpectedConditions.textToBePresentInElement(element, text));
 	}
 
-	public void waitForElementToBeSelected(MobileElement element) {
-		wait.until(ExpectedConditions.elementSelectionStateToBe(element, true));
+	public void waitForElementToBeSelected(WebElement element) {
+		getWait().until(ExpectedConditions.elementSelectionStateToBe(element, true));
 	}
 
-	public void waitForElementToBeRefreshed(MobileElement element) {
-		wait.until(ExpectedConditions.refreshed(ExpectedConditions.elementToBeClickable(element)));
+	public void waitForElementToBeRefreshed(WebElement element) {
+		getWait().until(ExpectedConditions.refreshed(ExpectedConditions.elementToBeClickable(element)));
 	}
 
 	public void waitForInvisibilityOfElementByText(By by, String text) {
-		wait.until(ExpectedConditions.invisibilityOfElementWithText(by, text));
+		getWait().until(ExpectedConditions.invisibilityOfElementWithText(by, text));
 	}
 
-	public void waitForElementToBeInVisible(MobileElement element) {
-		wait.until(ExpectedConditions.invisibilityOf(element));
+	public void waitForElementToBeInVisible(WebElement element) {
+		getWait().until(ExpectedConditions.invisibilityOf(element));
 	}
 
-	public void waitForElementToBeInVisible(MobileElement element, int timeout) {
-		WebDriverWait webDriverWait = new WebDriverWait(driver, timeout);
+	public void waitForElementToBeInVisible(WebElement element, int timeout) {
+		WebDriverWait webDriverWait = new TimedWait(getDriver(), timeout);
 		webDriverWait.until(ExpectedConditions.invisibilityOf(element));
 	}
 
-	public void waitForElementToBeChecked(MobileElement element) {
-		wait.until(elementToBeChecked(element));
+	public void waitForElementToBeChecked(WebElement element) {
+		getWait().until(elementToBeChecked(element));
 	}
 
 	/**
-	 * Takes snapshot
+	 * Takes snapshot, stored in the background by {@link ArtifactStore}
 	 * 
-	 * @param filename(String) filename of the snapshot
+	 * @param filename(String) name the snapshot is logged with
+	 * @return file of the screenshot, or of the page source where the driver
+	 *         does not render
 	 */
-	public void takeScreenShot(String filename) {
-		File srcFile = ((TakesScreenshot) driver).getScreenshotAs(OutputType.FILE);
-
-		try {
-			FileUtils.copyFile(srcFile, new File(System.getProperty("user.dir") + "/src/test/resources/Screenshots/"
-					+ filename + System.currentTimeMillis() + ".png"));
-		} catch (IOException e) {
-			e.printStackTrace();
+	public File takeScreenShot(String filename) {
+		File artifact;
+		if (!(getDriver() instanceof TakesScreenshot)) {
+			// HtmlUnit does not render, keep the page source instead
+			artifact = savePageSource();
+		} else {
+			artifact = ArtifactStore.storeScreenshot(((TakesScreenshot) getDriver()).getScreenshotAs(OutputType.BYTES));
 		}
+		System.out.println("Snapshot of " + filename + " ::: " + artifact);
+		return artifact;
+	}
+
+	/**
+	 * To keep the page source, gzipped by {@link ArtifactStore}
+	 * 
+	 * @return file of the page source
+	 */
+	public File savePageSource() {
+		return ArtifactStore.storePageSource(getDriver().getPageSource());
 	}
 
 	// Get element text
-	public String getTexts(MobileElement element) {
+	public String getTexts(WebElement element) {
 		String text = element.getText();
 		return text;
 	}
 
 	// To verify that the checkBox is selected or not
 	public boolean isSelected(String inputElement) {
-		MobileElement element = getElement(XPATH, inputElement);
+		WebElement element = getElement(XPATH, inputElement);
 		boolean isSelected = false;
 		try {
 			if (element != null) {
@@ -381,7 +485,7 @@ public class TestBase {
 	 */
 	public String getDropdownValue(String element) {
 		String selectedOption = null;
-		MobileElement option = driver.findElement(By.xpath(element));
+		WebElement option = WaitPolicy.find(getDriver(), By.xpath(element));
 		try {
 			if (option != null) {
 				selectedOption = new Select(option).getFirstSelectedOption().getText();
@@ -397,7 +501,7 @@ public class TestBase {
 	 */
 	public void deleteCookies() {
 		try {
-			driver.manage().deleteAllCookies();
+			getDriver().manage().deleteAllCookies();
 		} catch (Exception e) {
 			Assert.fail("Not able to delete cookies");
 		}
@@ -410,7 +514,7 @@ public class TestBase {
 	 */
 	public String gettext(String element) {
 		String text = null;
-		MobileElement Element = waitForVisibility(getElement(XPATH, element));
+		WebElement Element = waitForVisibility(getElement(XPATH, element));
 		try {
 			if (Element != null) {
 				text = Element.getText();
@@ -429,7 +533,7 @@ public class TestBase {
 	 */
 	public String gettext(String element, String attribute) {
 		String value = null;
-		MobileElement Element = waitForVisibility(getElement(XPATH, element));
+		WebElement Element = waitForVisibility(getElement(XPATH, element));
 		try {
 			if (Element != null) {
 				value = Element.getAttribute(attribute);
@@ -443,10 +547,10 @@ public class TestBase {
 	/**
 	 * To get text based on attribute(EX: id,src, value...)
 	 * 
-	 * @param element   MobileElement of locator
+	 * @param element   WebElement of locator
 	 * @param attribute element on the page
 	 */
-	public String gettexts(MobileElement element, String attribute) {
+	public String gettexts(WebElement element, String attribute) {
 		String value = null;
 		try {
 			if (element != null) {
@@ -460,7 +564,7 @@ public class TestBase {
 
 	// To verify element is enabled
 	public boolean checkEnabled(String Xpath) {
-		MobileElement element = driver.findElement(By.xpath(Xpath));
+		WebElement element = WaitPolicy.find(getDriver(), By.xpath(Xpath));
 		boolean isEnabled = false;
 		try {
 			if (element != null) {
@@ -474,8 +578,8 @@ public class TestBase {
 
 	// To verify if element is displayed
 	public boolean isDisplayed(String inputLocator) {
-		MobileElement element = waitForVisibility(getElement(XPATH, inputLocator));
-//		MobileElement element = driver.findElement(By.xpath(Xpath));
+		WebElement element = waitForVisibility(getElement(XPATH, inputLocator));
+//		WebElement element = driver.findElement(By.xpath(Xpath));
 		boolean isDisplayed = false;
 		try {
 			if (element != null) {
@@ -489,36 +593,77 @@ public class TestBase {
 
 	// To get the text of the lists
 	public List<String> getLists(String element) {
-		List<String> list = new ArrayList<String>();
-		List<MobileElement> lists = driver.findElements(By.xpath(element));
-		for (int i = 0; i < lists.size(); i++) {
-			String text = lists.get(i).getText();
-			list.add(text);
-		}
-		return list;
+		return BulkReader.texts(getDriver(), Arrays.asList(element));
 	}
 
 	// To get the attribute values
 	public List<String> getLists(String element, String value) {
-		List<String> list = new ArrayList<String>();
-		List<MobileElement> lists = driver.findElements(By.xpath(element));
-		for (int i = 0; i < lists.size(); i++) {
-			String text = lists.get(i).getAttribute(value);
-			list.add(text);
+		return BulkReader.attributes(getDriver(), element, value);
+	}
+
+	/**
+	 * To find the elements present right now, without waiting for them
+	 * 
+	 * @param by locator
+	 * @return matching elements, empty when there are none
+	 */
+	public List<WebElement> findElementsNow(By by) {
+		return WaitPolicy.findNow(getDriver(), by);
+	}
+
+	public boolean isPresentNow(By by) {
+		return !findElementsNow(by).isEmpty();
+	}
+
+	/**
+	 * To read presence, display, enabled state, text and the given attributes
+	 * of several elements in one script call, instead of a driver call per
+	 * element and property
+	 * 
+	 * @param xpaths     locators of the elements
+	 * @param attributes attributes or properties (e.g. value) to read as well
+	 * @return state per locator
+	 */
+	public Map<String, ElementState> getElementStates(List<String> xpaths, String... attributes) {
+		return ElementState.query(getDriver(), xpaths, attributes);
+	}
+
+	/**
+	 * To read the states of several elements once all of them are displayed,
+	 * polling with the same single script call
+	 * 
+	 * @param xpaths     locators of the elements, all of them are waited for
+	 * @param attributes attributes or properties (e.g. value) to read as well
+	 * @return state per locator, as last read when some element never showed up
+	 */
+	public Map<String, ElementState> waitForElementStates(final List<String> xpaths, final String... attributes) {
+		final AtomicReference<Map<String, ElementState>> last = new AtomicReference<Map<String, ElementState>>();
+		try {
+			return WaitPolicy.until(getDriver(), "states " + xpaths, driver -> {
+				Map<String, ElementState> states = ElementState.query(driver, xpaths, attributes);
+				last.set(states);
+				for (ElementState state : states.values()) {
+					if (!state.isDisplayed()) {
+						return null;
+					}
+				}
+				return states;
+			});
+		} catch (TimeoutException e) {
+			return last.get() != null ? last.get() : getElementStates(xpaths, attributes);
 		}
-		return list;
 	}
 
 	/**
-	 * To get all elements from the list
+	 * To get all elements from the list, as shown now
 	 * 
 	 * @param String xpath
 	 */
-	public List<MobileElement> getListElements(String element) {
+	public List<WebElement> getListElements(String element) {
 
-		List<MobileElement> elementList = null;
+		List<WebElement> elementList = null;
 		try {
-			elementList = driver.findElements(By.xpath(element));
+			elementList = findElementsNow(By.xpath(element));
 		} catch (Exception e) {
 			e.printStackTrace();
 		}
@@ -533,23 +678,11 @@ public class TestBase {
 	 */
 	public void selectDropdownValue(String element, String value) {
 
-		boolean flag = false;
 		try {
-			MobileElement dropDownListBox = getElement(XPATH, element);
-			List<MobileElement> lists = dropDownListBox.findElements(By.tagName("option"));
-			for (int i = 0; i <= lists.size() - 1; i++) {
-				String dropdownValue = lists.get(i).getText().trim();
-				if (value.equals(dropdownValue)) {
-					flag = true;
-					break;
-				}
-			}
-			if (!flag) {
-				value = "Select";
-			}
+			WebElement dropDownListBox = getElement(XPATH, element);
 			if (dropDownListBox != null) {
-				Select clickThis = new Select(dropDownListBox);
-				clickThis.selectByVisibleText(value);
+				// The value, or the "Select" placeholder when the list does not have it
+				BulkReader.selectByVisibleText(getDriver(), dropDownListBox, value, "Select");
 			}
 		} catch (NoSuchElementException e) {
 			e.printStackTrace();
@@ -563,7 +696,7 @@ public class TestBase {
 	 * @param Integer index of the element to be selected
 	 */
 	public void selectOptionFromDropdown(String element, int indexvalue) {
-		MobileElement mySelectElm = driver.findElement(By.xpath(element));
+		WebElement mySelectElm = WaitPolicy.find(getDriver(), By.xpath(element));
 		try {
 			if (mySelectElm != null) {
 				Select mySelect = new Select(mySelectElm);
@@ -575,23 +708,59 @@ public class TestBase {
 	}
 
 	/**
-	 * To Change the xpath into MobileElement *
+	 * To get the locator an XPath is looked up with: its CSS equivalent when it
+	 * has one, in a web context, else the XPath
+	 *
+	 * @param xpath xpath (String) of the element
+	 */
+	public By locate(String xpath) {
+		return DriverContext.isNativeContext() ? By.xpath(xpath) : LocatorTemplate.locate(xpath);
+	}
+
+	/**
+	 * To Change the xpath into WebElement *
 	 * 
 	 * @param String xpath of the element
 	 */
-	public MobileElement getElement(String Xpath) {
-		MobileElement element = driver.findElement(By.xpath(Xpath));
+	public WebElement getElement(String Xpath) {
+		WebElement element = lookUp(Xpath);
 		return element;
 
 	}
 
-	public MobileElement getElement(String locator, String inputElement) {
+	// The XPath lookup of getElement, timed when the locator profiler is on
+	private WebElement lookUp(String xpath) {
+		if (!LocatorProfiler.isEnabled()) {
+			return find(xpath);
+		}
+		long start = System.currentTimeMillis();
+		boolean found = false;
+		try {
+			WebElement element = find(xpath);
+			found = true;
+			return element;
+		} finally {
+			LocatorProfiler.record(getDriver(), xpath, System.currentTimeMillis() - start, found);
+		}
+	}
+
+	// A locator with fallback candidates probes them all at once on each poll
+	private WebElement find(String xpath) {
+		if (LocatorChain.candidates(xpath).size() == 1) {
+			return waitForVisibility(locate(xpath));
+		}
+		final WebDriver driver = getDriver();
+
+		return ElementCache.lookup(driver, locate(xpath), by -> LocatorChain.resolve(driver, xpath, this::locate));
+	}
+
+	public WebElement getElement(String locator, String inputElement) {
 
 		By byElement;
-		MobileElement query;
+		WebElement query;
 		switch (locator) {
 		case "xpath":
-			byElement = By.xpath(inputElement);
+			byElement = locate(inputElement);
 			break;
 		case "id":
 			byElement = By.id(inputElement);
@@ -619,7 +788,7 @@ public class TestBase {
 		}
 
 		try {
-			query = waitForVisibility(byElement);
+			query = XPATH.equals(locator) ? lookUp(inputElement) : waitForVisibility(byElement);
 			return query;
 		} catch (NoSuchElementException e) {
 			e.printStackTrace();
@@ -636,23 +805,23 @@ public class TestBase {
 	 * @param text    String value of data to enter
 	 */
 	public void populateFields(String element, String text) {
-		Object platformName = driver.getCapabilities().getCapability("platformName");
-		MobileElement ele = waitForVisibility(getElement(element));
+		Object platformName = getPlatformName();
+		WebElement ele = waitForVisibility(getElement(element));
 
 		try {
 			if (ele != null) {
-//				MobileElement ele = waitForElementToBeClickable(element);
+//				WebElement ele = waitForElementToBeClickable(element);
 				if (text != null) {
 					if (!ele.getText().isEmpty() && ele.getText() != null) {
 						ele.clear();
 					}
 					if (platformName.equals("iOS")) {
-						((JavascriptExecutor) driver).executeScript(
+						((JavascriptExecutor) getDriver()).executeScript(
 								"let input = arguments[0];var setValue = Object.getOwnPropertyDescriptor(window.HTMLInputElement.prototype, 'value').set;setValue.call(input, '"
 										+ text
 										+ "');var e = new Event('input', { bubbles: true });input.dispatchEvent(e);",
 								ele);
-					} else if (platformName.equals("Android")) {
+					} else {
 						ele.sendKeys(text);
 					}
 				} else {
@@ -671,8 +840,8 @@ public class TestBase {
 	 * @param element xpath (String) of the element
 	 */
 	public void tapElement(String element) {
-		MobileElement ele = waitForVisibility(getElement(element));
-		delay(200L);
+		WebElement ele = waitForVisibility(getElement(element));
+		SettleEngine.arm(getDriver());
 		try {
 			if (ele != null) {
 				ele.click();
@@ -684,7 +853,7 @@ public class TestBase {
 		} catch (Exception e) {
 			e.printStackTrace();
 		}
-		delay(200L);
+		waitToSettle();
 
 	}
 
@@ -694,24 +863,24 @@ public class TestBase {
 	 * @param element xpath (String) of the element
 	 */
 	public void tapElementUsingJS(String element) {
-		MobileElement elem = waitForVisibility(getElement(XPATH, element));
-		MobileElement ele = waitForElementToBeClickable(element);
-		delay(200L);
+		WebElement elem = waitForVisibility(getElement(XPATH, element));
+		WebElement ele = waitForElementToBeClickable(element);
+		SettleEngine.arm(getDriver());
 		try {
 			if (ele != null) {
-				JavascriptExecutor jsExecutor = (JavascriptExecutor) driver;
+				JavascriptExecutor jsExecutor = (JavascriptExecutor) getDriver();
 				jsExecutor.executeScript("arguments[0].click();", ele);
 			}
 		} catch (StaleElementReferenceException e) {
-			JavascriptExecutor jsExecutor = (JavascriptExecutor) driver;
+			JavascriptExecutor jsExecutor = (JavascriptExecutor) getDriver();
 			jsExecutor.executeScript("arguments[0].click();", ele);
 		} catch (ElementClickInterceptedException e) {
-			JavascriptExecutor jsExecutor = (JavascriptExecutor) driver;
+			JavascriptExecutor jsExecutor = (JavascriptExecutor) getDriver();
 			jsExecutor.executeScript("arguments[0].click();", ele);
 		} catch (Exception e) {
 			e.printStackTrace();
 		}
-		delay(200L);
+		waitToSettle();
 	}
 
 	/**
@@ -720,49 +889,60 @@ public class TestBase {
 	 * @param element xpath (String) of the element
 	 */
 	public void doubleTapElement(String element) {
-		Actions actions = new Actions(driver);
+		Actions actions = new Actions(getDriver());
 		WebElement elementLocator = getElement(XPATH, element);
 		actions.doubleClick(elementLocator).perform();
 	}
 
 	public void startRecordingScreen() {
-		Object platformName = driver.getCapabilities().getCapability("platformName");
+		if (!isTouchDevice()) {
+			return;
+		}
+		Object platformName = getPlatformName();
 
 		if (platformName.equals("iOS")) {
-			((CanRecordScreen) driver).startRecordingScreen(new IOSStartScreenRecordingOptions()
+			((CanRecordScreen) getDriver()).startRecordingScreen(new IOSStartScreenRecordingOptions()
 					.withVideoScale("1280x720").withTimeLimit(Duration.ofSeconds(100)).withVideoType("mpeg4")
 					.withVideoQuality(VideoQuality.MEDIUM).enableForcedRestart());
 
 		} else if (platformName.equals("Android")) {
-			((CanRecordScreen) driver).startRecordingScreen(new AndroidStartScreenRecordingOptions()
+			((CanRecordScreen) getDriver()).startRecordingScreen(new AndroidStartScreenRecordingOptions()
 					.withVideoSize("1280x720").withTimeLimit(Duration.ofSeconds(200)));
 		}
 	}
 
-	// stop video capturing and create *.mp4 file
-	public synchronized void stopRecordingScreen(Scenario scenario) throws Exception {
-
-		Object platformName = driver.getCapabilities().getCapability("platformName");
-		Object deviceName = ((String) driver.getCapabilities().getCapability("deviceName")).replaceAll(" ", "_");
-		delay(3000L);
-		String media = ((CanRecordScreen) driver).stopRecordingScreen();
-
-		String dirPath = "videos" + File.separator + platformName + "_" + deviceName + File.separator + getDateTime();
-
-		File videoDir = new File(dirPath);
-
-		synchronized (videoDir) {
-			if (!videoDir.exists()) {
-				videoDir.mkdirs();
-			}
+	// stop video capturing and create *.mp4 file; the stop, the fetch and the write
+	// run off the scenario thread, once the session is released, and a note is
+	// written instead when they fail (RecordingWriter.failureNote)
+	public File stopRecordingScreen(Scenario scenario) throws Exception {
+		if (!isTouchDevice()) {
+			return null;
 		}
 
+		Object platformName = getPlatformName();
+		Object deviceName = ((String) getAppiumDriver().getCapabilities().getCapability("deviceName")).replaceAll(" ",
+				"_");
+
 		String[] scenarios = scenario.getId().split("/");
 		String scenarioId = scenarios[1].replaceAll("(\\W|^_)*", "");
 
-		byte[] decode = Base64.getDecoder().decode(media);
-		FileUtils.writeByteArrayToFile(new File(videoDir + File.separator + scenarioId + ".mp4"), decode);
+		final File video = ArtifactStore.videoFile(platformName + "_" + deviceName, getDateTime(), scenarioId);
+		final CanRecordScreen driver = (CanRecordScreen) getDriver();
+		SessionPool.beforeRelease(getDriver(), new Runnable() {
 
+			@Override
+			public void run() {
+				String media;
+				try {
+					media = driver.stopRecordingScreen();
+				} catch (RuntimeException e) {
+					RecordingWriter.failed(video, "not fetched: " + e);
+					return;
+				}
+				RecordingWriter.submit(media, video);
+			}
+		});
+		return video;
 	}
 
 	public String getDateTime() {
@@ -775,13 +955,13 @@ public class TestBase {
 	 * TO allow the permission pop-up
 	 **/
 	public boolean allowPermissionPopup() {
-		WebDriverWait webDriverWait = new WebDriverWait(driver, 10);
+		WebDriverWait webDriverWait = new TimedWait(getDriver(), 10);
 		try {
 			By allowXpath = By.xpath("//*[@text='Save' or @text='Allow' or @name = 'Allow']");
-			MobileElement acceptElement = (MobileElement) webDriverWait
+			WebElement acceptElement = webDriverWait
 					.until(ExpectedConditions.elementToBeClickable(allowXpath));
 			acceptElement.click();
-			acceptElement = (MobileElement) webDriverWait.until(ExpectedConditions.elementToBeClickable(allowXpath));
+			acceptElement = webDriverWait.until(ExpectedConditions.elementToBeClickable(allowXpath));
 			acceptElement.click();
 			return true;
 		} catch (TimeoutException e) {
@@ -790,14 +970,17 @@ public class TestBase {
 	}
 
 	public void scrollToElementUsingJS(String input) {
-		MobileElement element = waitForVisibility(getElement(input));
-		((JavascriptExecutor) driver).executeScript("arguments[0].scrollIntoView(true);", element);
+		WebElement element = waitForVisibility(getElement(input));
+		((JavascriptExecutor) getDriver()).executeScript("arguments[0].scrollIntoView(true);", element);
 	}
 
 	public void scrollAndClickElementUsingJS(String input) {
-		MobileElement element = waitForVisibility(getElement(input));
-		((JavascriptExecutor) driver).executeScript("arguments[0].scrollIntoView(true);", element);
-		((JavascriptExecutor) driver).executeScript("arguments[0].click();", element);
+		scrollAndClick(waitForVisibility(getElement(input)));
+	}
+
+	private void scrollAndClick(WebElement element) {
+		((JavascriptExecutor) getDriver()).executeScript("arguments[0].scrollIntoView(true);", element);
+		((JavascriptExecutor) getDriver()).executeScript("arguments[0].click();", element);
 	}
 
 	public void scrollTo(String text) {
@@ -809,7 +992,7 @@ public class TestBase {
 	}
 
 	public void tapOn(String text) {
-		driver.findElement(By.xpath("//*[@text=\'" + text + "\']")).click();
+		WaitPolicy.find(getDriver(), By.xpath("//*[@text=\'" + text + "\']")).click();
 	}
 
 	public void scrollDownToContainsText(String text) {
@@ -829,7 +1012,7 @@ public class TestBase {
 		hideKeyboard();
 		int i = 0;
 		while (i < 4) {
-			if (driver.findElements(byOfElementToBeFound).size() > 0)
+			if (getDriver().findElements(byOfElementToBeFound).size() > 0)
 				return;
 
 			scrollDown();
@@ -842,7 +1025,7 @@ public class TestBase {
 		hideKeyboard();
 		int i = 0;
 		while (i < 12) {
-			if (driver.findElements(byOfElementToBeFound).size() > 0)
+			if (getDriver().findElements(byOfElementToBeFound).size() > 0)
 				return;
 
 			scrollDown();
@@ -852,7 +1035,7 @@ public class TestBase {
 		Assert.fail("Did not find : " + byOfElementToBeFound.toString());
 	}
 
-	public void scrollDownTo(MobileElement element) {
+	public void scrollDownTo(WebElement element) {
 		hideKeyboard();
 		int i = 0;
 		while (i < 12) {
@@ -871,7 +1054,7 @@ public class TestBase {
 	}
 
 	// when locating the `element` is optional
-	public void scrollDownWithoutFailTo(MobileElement element) {
+	public void scrollDownWithoutFailTo(WebElement element) {
 		hideKeyboard();
 		int i = 0;
 		while (i < 12) {
@@ -888,7 +1071,7 @@ public class TestBase {
 		}
 	}
 
-	public void scrollDownTo(List<MobileElement> initSize) {
+	public void scrollDownTo(List<WebElement> initSize) {
 		hideKeyboard();
 		int i = 0;
 		int size = initSize.size();
@@ -903,7 +1086,11 @@ public class TestBase {
 
 	@SuppressWarnings("rawtypes")
 	public void scrollDown() {
-		int height = driver.manage().window().getSize().getHeight();
+		int height = getDriver().manage().window().getSize().getHeight();
+		if (!isTouchDevice()) {
+			((JavascriptExecutor) getDriver()).executeScript("window.scrollBy(0, arguments[0]);", height / 3);
+			return;
+		}
 
 		PointOption pointOption = new PointOption();
 		pointOption.withCoordinates(5, height * 2 / 3);
@@ -912,14 +1099,18 @@ public class TestBase {
 		moveToPointOption.withCoordinates(5, height / 3);
 		WaitOptions waitOptions = new WaitOptions();
 		waitOptions.withDuration(Duration.ofMillis(1000));
-		new TouchAction(driver).press(pointOption).waitAction(waitOptions).moveTo(moveToPointOption).release()
+		new TouchAction(getAppiumDriver()).press(pointOption).waitAction(waitOptions).moveTo(moveToPointOption).release()
 				.perform();
 
 	}
 
 	public void scrollUp() {
 
-		int height = driver.manage().window().getSize().getHeight();
+		int height = getDriver().manage().window().getSize().getHeight();
+		if (!isTouchDevice()) {
+			((JavascriptExecutor) getDriver()).executeScript("window.scrollBy(0, -arguments[0]);", height / 3);
+			return;
+		}
 
 //        new TouchAction(driver).press(5, height / 3)
 //                .waitAction(Duration.ofMillis(1000))
@@ -928,8 +1119,8 @@ public class TestBase {
 	}
 
 	public void swipeLeftToRight() {
-		int height = driver.manage().window().getSize().getHeight();
-		int width = driver.manage().window().getSize().getWidth();
+		int height = getDriver().manage().window().getSize().getHeight();
+		int width = getDriver().manage().window().getSize().getWidth();
 //        new TouchAction(driver).press(width / 3, height / 2)
 //                .waitAction(Duration.ofMillis(1000))
 //                .moveTo(width * 2 / 3, height / 2)
@@ -937,8 +1128,8 @@ public class TestBase {
 	}
 
 	public void swipeRightToLeft() {
-		int height = driver.manage().window().getSize().getHeight();
-		int width = driver.manage().window().getSize().getWidth();
+		int height = getDriver().manage().window().getSize().getHeight();
+		int width = getDriver().manage().window().getSize().getWidth();
 //        new TouchAction(driver).press(width * 9 / 10, height / 2)
 //                .waitAction(Duration.ofMillis(1000))
 //                .moveTo(width / 10, height / 2)
@@ -953,7 +1144,7 @@ public class TestBase {
 		hideKeyboard();
 		int i = 0;
 		while (i < 5) {
-			if (driver.findElements(by).size() > 0)
+			if (getDriver().findElements(by).size() > 0)
 				return;
 
 			scrollUp();
@@ -965,15 +1156,15 @@ public class TestBase {
 
 	public void swipeRightToLeftToFindElementAndClick(By byOfElementToSwipeOn, By byOfElementToBeFound) {
 
-		int height = driver.findElement(byOfElementToSwipeOn).getLocation().getY() + 50;
-		int width = driver.manage().window().getSize().getWidth();
+		int height = WaitPolicy.find(getDriver(), byOfElementToSwipeOn).getLocation().getY() + 50;
+		int width = getDriver().manage().window().getSize().getWidth();
 
 		System.out.println("Screen width ::" + width);
 
 		int count = 0;
 		while (count < 20) {
-			if (driver.findElements(byOfElementToBeFound).size() > 0) {
-				driver.findElement(byOfElementToBeFound).click();
+			if (getDriver().findElements(byOfElementToBeFound).size() > 0) {
+				getDriver().findElement(byOfElementToBeFound).click();
 				return;
 			}
 //            new TouchAction(driver).press(width * 6 / 7, height)
@@ -987,12 +1178,12 @@ public class TestBase {
 
 	public void swipeRtoLOnElementUsingCount(By by, int count) {
 
-		Point p = driver.findElement(by).getLocation();
+		Point p = WaitPolicy.find(getDriver(), by).getLocation();
 		int x_int = ((Integer) p.getX());
 		int y_int = ((Integer) p.getY());
 
-		int height = driver.manage().window().getSize().getHeight();
-		int width = driver.manage().window().getSize().getWidth();
+		int height = getDriver().manage().window().getSize().getHeight();
+		int width = getDriver().manage().window().getSize().getWidth();
 
 		boolean flag = true;
 		int _count = 0;
@@ -1021,7 +1212,7 @@ public class TestBase {
 		}
 	}
 
-	protected void swipeFromTo(MobileElement startElement, MobileElement stopElement) {
+	protected void swipeFromTo(WebElement startElement, WebElement stopElement) {
 //        new TouchAction(driver).press(startElement.getLocation().getX(), startElement.getLocation().getY())
 //                .waitAction(Duration.ofMillis(1000))
 //                .moveTo(stopElement.getLocation().getX(), stopElement.getLocation().getY())
@@ -1036,16 +1227,18 @@ public class TestBase {
 	 */
 	public void scrollAndClickMobileElement(String xpathValue) {
 
-		MobileElement mobElement = driver.findElement(MobileBy.xpath(xpathValue));
+		WebElement mobElement = WaitPolicy.find(getDriver(), MobileBy.xpath(xpathValue));
 		try {
-			if (mobElement != null) {
+			if (mobElement != null && !isTouchDevice()) {
+				scrollAndClick(mobElement);
+			} else if (mobElement != null) {
 				Point point = mobElement.getLocation();
 				int startY = point.y;
 				int endY = point.y;
 
-				int startX = (int) ((driver.manage().window().getSize().getWidth()) * 0.80);
-				driver.manage().window().getSize().getWidth();
-				new TouchAction(driver).press(PointOption.point(startX, startY)).waitAction()
+				int startX = (int) ((getDriver().manage().window().getSize().getWidth()) * 0.80);
+				getDriver().manage().window().getSize().getWidth();
+				new TouchAction(getAppiumDriver()).press(PointOption.point(startX, startY)).waitAction()
 						.moveTo(PointOption.point(startX, endY)).release().perform();
 			}
 		} catch (Exception e) {
@@ -1059,7 +1252,7 @@ public class TestBase {
 		int count = 1;
 		while (flag) {
 			try {
-				driver.findElement(By.xpath(xPath));
+				getDriver().findElement(By.xpath(xPath));
 				flag = false;
 				break;
 			} catch (Exception NoSuchElementException) {
@@ -1068,7 +1261,11 @@ public class TestBase {
 				params.put("start", "40%,90%");
 				params.put("end", "40%,20%");
 				params.put("duration", "2");
-				Object res = driver.executeScript("mobile:touch:swipe", params);
+				if (!isTouchDevice()) {
+					scrollDown();
+				} else {
+					getAppiumDriver().executeScript("mobile:touch:swipe", params);
+				}
 				if (count == 5) {
 					break;
 				}
@@ -1083,7 +1280,13 @@ public class TestBase {
 	 * @param y coordinate
 	 */
 	public void TapByCoordinates(int x, int y) {
-		TouchAction touchAction = new TouchAction(driver);
+		if (!isTouchDevice()) {
+			((JavascriptExecutor) getDriver()).executeScript(
+					"var target = document.elementFromPoint(arguments[0], arguments[1]); if (target) { target.click(); }",
+					x, y);
+			return;
+		}
+		TouchAction touchAction = new TouchAction(getAppiumDriver());
 		touchAction.tap(PointOption.point(x, y)).perform();
 	}
 
@@ -1096,7 +1299,11 @@ public class TestBase {
 	 * @param anchor     in x coordinates
 	 */
 	public void SwipeVerticalByCoordinates(int startPoint, int endPoint, int anchor) {
-		TouchAction touchAction = new TouchAction(driver);
+		if (!isTouchDevice()) {
+			((JavascriptExecutor) getDriver()).executeScript("window.scrollBy(0, arguments[0]);", startPoint - endPoint);
+			return;
+		}
+		TouchAction touchAction = new TouchAction(getAppiumDriver());
 		touchAction.press(PointOption.point(anchor, startPoint))
 				.waitAction(WaitOptions.waitOptions(Duration.ofSeconds(2))).moveTo(PointOption.point(anchor, endPoint))
 				.release().perform();
@@ -1134,11 +1341,11 @@ public class TestBase {
 
 	public String getTagName(String inputElement) {
 		String tagname = "";
-		MobileElement ele = waitForVisibility(getElement(XPATH, inputElement));
+		WebElement ele = getElement(XPATH, inputElement);
 		if (ele != null) {
-			tagname = getElement(XPATH, inputElement).getTagName();
+			tagname = ele.getTagName();
 			if (tagname.equals("input")) {
-				tagname = getElement(XPATH, inputElement).getAttribute("type");
+				tagname = ele.getAttribute("type");
 			}
 		} else {
 			tagname = "NotFound";
@@ -1157,16 +1364,10 @@ public class TestBase {
 		if (!validationMessages.isEmpty()) {
 			validationMessages.clear();
 		}
-		for (String errMessageFields : fields) {
-			if (getListElements(errMessageFields).size() > 0) {
-				if (getElement(XPATH, errMessageFields) != null) {
-					List<MobileElement> validationMsgs = driver.findElements(By.xpath(errMessageFields));
-					for (int i = 0; i <= validationMsgs.size() - 1; i++) {
-						if (validationMsgs.get(i).getText() != null && validationMsgs.get(i).getText() != "") {
-							validationMessages.add(validationMsgs.get(i).getText());
-						}
-					}
-				}
+		// All fields in one call; no message shown is the usual case, do not wait for one
+		for (String text : BulkReader.texts(getDriver(), Arrays.asList(fields))) {
+			if (text != null && !text.isEmpty()) {
+				validationMessages.add(text);
 			}
 		}
 		return validationMessages;
@@ -1174,12 +1375,12 @@ public class TestBase {
 
 	public void pressENTER(String inputElement) {
 		// TODO Auto-generated method stub
-		driver.findElement(By.xpath(inputElement)).sendKeys(Keys.ENTER);
+		WaitPolicy.find(getDriver(), By.xpath(inputElement)).sendKeys(Keys.ENTER);
 	}
 
 	public void pressTAB(String inputElement) {
 		// TODO Auto-generated method stub
-		driver.findElement(By.xpath(inputElement)).sendKeys(Keys.TAB);
+		WaitPolicy.find(getDriver(), By.xpath(inputElement)).sendKeys(Keys.TAB);
 	}
 
 }
@@ -0,0 +1,27 @@
+package base;
+
+import java.util.function.Function;
+
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.support.ui.WebDriverWait;
+
+/**
+ * WebDriverWait whose waits are counted in {@link StepMetrics}
+ */
+public class TimedWait extends WebDriverWait {
+
+	public TimedWait(WebDriver driver, long timeOutInSeconds) {
+		super(driver, timeOutInSeconds);
+	}
+
+	@Override
+	public <V> V until(Function<? super WebDriver, V> isTrue) {
+		long start = StepMetrics.waiting();
+		try {
+			return super.until(isTrue);
+		} finally {
+			StepMetrics.waited(start);
+		}
+	}
+
+}
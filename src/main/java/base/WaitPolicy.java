@@ -0,0 +1,264 @@
+package base;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import org.apache.commons.io.FileUtils;
+import org.openqa.selenium.By;
+import org.openqa.selenium.NoSuchElementException;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+
+import com.google.gson.GsonBuilder;
+
+/**
+ * Explicit waits that poll often at first and then back off: 50 ms, 100 ms,
+ * 200 ms and so on up to maxPollMillis. These are the only waits: sessions run
+ * without implicit wait ({@link #disableImplicitWait(WebDriver)}), so a lookup
+ * of a missing element answers at once, on every poll and in
+ * {@link #findNow(WebDriver, By)}, which answers "is it there now?".
+ *
+ * Timeouts can be set per locator with {@link #setTimeout(By, long)}, per
+ * screen with waitTimeout.&lt;ScreenClass&gt; in config.properties, and
+ * default to waitTimeout. Every wait is recorded so the timeouts can be tuned
+ * from target/wait-times.json.
+ */
+public final class WaitPolicy {
+
+	private static final String SCREEN_PACKAGE = "pages.";
+
+	private static final Map<String, Long> LOCATOR_TIMEOUTS = new ConcurrentHashMap<String, Long>();
+
+	private static final Map<String, Long> SCREEN_TIMEOUTS = new ConcurrentHashMap<String, Long>();
+
+	private static final Map<String, WaitTimes> TIMES = new ConcurrentHashMap<String, WaitTimes>();
+
+	private static volatile long defaultTimeoutMillis = 30_000;
+
+	private static volatile long firstPollMillis = 50;
+
+	private static volatile long maxPollMillis = 1_000;
+
+	private WaitPolicy() {
+	}
+
+	/**
+	 * Durations of the waits of one screen and locator
+	 */
+	static class WaitTimes {
+
+		long count;
+
+		long timeouts;
+
+		long totalMillis;
+
+		long maxMillis;
+
+		long timeoutMillis;
+
+		synchronized void add(long millis, boolean timedOut, long timeout) {
+			count++;
+			totalMillis += millis;
+			maxMillis = Math.max(maxMillis, millis);
+			timeoutMillis = timeout;
+			if (timedOut) {
+				timeouts++;
+			}
+		}
+	}
+
+	/**
+	 * To read waitTimeout, waitPollMillis, waitMaxPollMillis and the
+	 * waitTimeout.&lt;ScreenClass&gt; entries
+	 *
+	 * @param config content of config.properties
+	 */
+	public static void configure(Properties config) {
+		defaultTimeoutMillis = Long.parseLong(config.getProperty("waitTimeout", "30")) * 1000;
+		firstPollMillis = Math.max(1, Long.parseLong(config.getProperty("waitPollMillis", "50")));
+		maxPollMillis = Math.max(firstPollMillis, Long.parseLong(config.getProperty("waitMaxPollMillis", "1000")));
+		for (String name : config.stringPropertyNames()) {
+			if (name.startsWith("waitTimeout.")) {
+				SCREEN_TIMEOUTS.put(name.substring("waitTimeout.".length()),
+						Long.parseLong(config.getProperty(name).trim()) * 1000);
+			}
+		}
+	}
+
+	/**
+	 * To give a locator its own timeout, e.g. a confirmation that waits on the
+	 * payment gateway
+	 *
+	 * @param locator element locator
+	 * @param seconds timeout of the waits on the locator
+	 */
+	public static void setTimeout(By locator, long seconds) {
+		LOCATOR_TIMEOUTS.put(locator.toString(), seconds * 1000);
+		String text = locator.toString();
+		if (text.startsWith("By.xpath: ")) {
+			// Also under the CSS equivalent the XPath is looked up with
+			LOCATOR_TIMEOUTS.put(LocatorTemplate.locate(text.substring("By.xpath: ".length())).toString(),
+					seconds * 1000);
+		}
+	}
+
+	/**
+	 * To switch the implicit wait of a session off, once when it is prepared for
+	 * a scenario
+	 */
+	public static void disableImplicitWait(WebDriver driver) {
+		driver.manage().timeouts().implicitlyWait(0, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * To find the elements present right now
+	 *
+	 * @param driver session of the scenario
+	 * @param by     locator
+	 * @return matching elements, empty when there are none
+	 */
+	public static List<WebElement> findNow(WebDriver driver, By by) {
+		return driver.findElements(by);
+	}
+
+	/**
+	 * To wait for an element to be present, where the implicit wait used to do it
+	 *
+	 * @param driver session of the scenario
+	 * @param by     locator
+	 * @return first matching element
+	 * @throws NoSuchElementException when it is never found
+	 */
+	public static WebElement find(WebDriver driver, By by) {
+		return until(driver, by.toString(), d -> d.findElement(by));
+	}
+
+	/**
+	 * To wait until the condition returns a value other than null or false
+	 *
+	 * @param driver    session of the scenario
+	 * @param locator   locator the condition looks for, By.toString(), decides the
+	 *                  timeout
+	 * @param condition condition to poll
+	 * @return the value of the condition
+	 * @throws NoSuchElementException when the element was never found
+	 * @throws TimeoutException       when it was found but the condition never
+	 *                                held
+	 */
+	public static <T> T until(WebDriver driver, String locator, Function<WebDriver, T> condition) {
+		String screen = callingScreen();
+		long timeout = timeoutOf(locator, screen);
+		long start = System.currentTimeMillis();
+		long deadline = start + timeout;
+		long poll = firstPollMillis;
+		RuntimeException last = null;
+
+		long started = StepMetrics.waiting();
+		try {
+			while (true) {
+				try {
+					T value = condition.apply(driver);
+					if (value != null && !Boolean.FALSE.equals(value)) {
+						record(screen, locator, System.currentTimeMillis() - start, false, timeout);
+						return value;
+					}
+					last = null;
+				} catch (NoSuchElementException | StaleElementReferenceException e) {
+					last = e;
+				}
+
+				long left = deadline - System.currentTimeMillis();
+				if (left <= 0) {
+					break;
+				}
+				sleep(Math.min(poll, left));
+				poll = Math.min(poll * 2, maxPollMillis);
+			}
+		} finally {
+			StepMetrics.waited(started);
+		}
+
+		record(screen, locator, System.currentTimeMillis() - start, true, timeout);
+		if (last instanceof NoSuchElementException) {
+			throw (NoSuchElementException) last;
+		}
+		throw new TimeoutException("Expected condition failed: waiting for " + locator + " (tried for "
+				+ timeout + " ms with polling backing off from " + firstPollMillis + " ms)", last);
+	}
+
+	/**
+	 * To write the recorded waits, per screen and locator
+	 *
+	 * @param file JSON report
+	 */
+	public static void writeReport(File file) {
+		if (TIMES.isEmpty()) {
+			return;
+		}
+		Map<String, Map<String, Long>> report = new TreeMap<String, Map<String, Long>>();
+		for (Map.Entry<String, WaitTimes> entry : TIMES.entrySet()) {
+			WaitTimes times = entry.getValue();
+			synchronized (times) {
+				Map<String, Long> row = new TreeMap<String, Long>();
+				row.put("count", times.count);
+				row.put("timeouts", times.timeouts);
+				row.put("meanMillis", times.totalMillis / times.count);
+				row.put("maxMillis", times.maxMillis);
+				row.put("timeoutMillis", times.timeoutMillis);
+				report.put(entry.getKey(), row);
+			}
+		}
+		try {
+			FileUtils.writeStringToFile(file, new GsonBuilder().setPrettyPrinting().disableHtmlEscaping().create().toJson(report),
+					StandardCharsets.UTF_8);
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+
+	private static long timeoutOf(String locator, String screen) {
+		Long timeout = LOCATOR_TIMEOUTS.get(locator);
+		if (timeout == null && screen != null) {
+			timeout = SCREEN_TIMEOUTS.get(screen);
+		}
+		return timeout != null ? timeout : defaultTimeoutMillis;
+	}
+
+	/**
+	 * The page object the wait was called from, by its simple class name
+	 */
+	private static String callingScreen() {
+		for (StackTraceElement frame : Thread.currentThread().getStackTrace()) {
+			if (frame.getClassName().startsWith(SCREEN_PACKAGE)) {
+				return frame.getClassName().substring(SCREEN_PACKAGE.length());
+			}
+		}
+		return null;
+	}
+
+	private static void record(String screen, String locator, long millis, boolean timedOut, long timeout) {
+		String key = (screen != null ? screen + " " : "") + locator;
+		TIMES.computeIfAbsent(key, k -> new WaitTimes()).add(millis, timedOut, timeout);
+	}
+
+	private static void sleep(long millis) {
+		try {
+			Thread.sleep(millis);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new TimeoutException("Interrupted while waiting", e);
+		}
+	}
+
+}
@@ -62,7 +62,6 @@ public class HomeScreen extends TestBase {
 		if (base.getElement(XPATH, continueButton) != null) {
 			if (base.isDisplayed(continueButton)) {
 				base.tapElementUsingJS(continueButton);
-				base.delay(1500L);
 			} else {
 				Assert.assertFalse(base.isDisplayed(continueButton),
 						"Not able to click " + continueButton + " to Bag button");
@@ -78,7 +77,6 @@ public class HomeScreen extends TestBase {
 		if (base.getElement(XPATH, splitEvenly) != null) {
 			if (base.isDisplayed(splitEvenly)) {
 				base.tapElementUsingJS(splitEvenly);
-				base.delay(1500L);
 			} else {
 				Assert.assertFalse(base.isDisplayed(splitEvenly), "Not able to click " + splitEvenly + " to Bag button");
 			}
@@ -100,7 +98,6 @@ public class HomeScreen extends TestBase {
 		System.out.println("No of times to be clicked "+noOfTimesToClick);
 		for(int i=0; i<=noOfTimesToClick-1; i++) {
 			base.tapElementUsingJS(splitByMoreButton);
-			base.delay(1500L);
 		}
 
 	}
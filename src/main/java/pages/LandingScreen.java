@@ -1,12 +1,14 @@
 package pages;
 
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 
-import org.openqa.selenium.support.ui.WebDriverWait;
 import org.testng.Assert;
 
+import base.ElementState;
 import base.TestBase;
+import base.TimedWait;
 import utilities.CommonUtility;
 import utilities.WebForm;
 
@@ -48,17 +50,11 @@ public class LandingScreen extends TestBase {
 	// Verify the welcome message when the app is launched on mobile browser
 	public void verifyWelcomeMessage() {
 
-		if (base.getElement(XPATH, welcomeMessageElement) != null) {
-			if (base.isDisplayed(welcomeMessageElement)) {
-				String actualWelcomeMessage = base.gettext(welcomeMessageElement);
-				Assert.assertEquals(actualWelcomeMessage, expectedWelcomeMessage);
-			} else {
-				Assert.assertFalse(base.isDisplayed(welcomeMessageElement), "Welcome Message is not being displayed");
-			}
-		} else {
-			Assert.assertNull(base.getElement(XPATH, welcomeMessageElement),
-					"Welcome Message Element is not displayed");
-		}
+		ElementState welcomeMessage = base.waitForElementStates(Arrays.asList(welcomeMessageElement))
+				.get(welcomeMessageElement);
+		Assert.assertTrue(welcomeMessage.isPresent(), "Welcome Message Element is not displayed");
+		Assert.assertTrue(welcomeMessage.isDisplayed(), "Welcome Message is not being displayed");
+		Assert.assertEquals(welcomeMessage.getText(), expectedWelcomeMessage);
 	}
 
 	// Verify if QR Scanner is displayed
@@ -112,7 +108,7 @@ public class LandingScreen extends TestBase {
 		if (base.getElement(XPATH, submitNextButton) != null) {
 			if (base.isDisplayed(submitNextButton)) {
 				base.tapElementUsingJS(submitNextButton);
-				wait = new WebDriverWait(driver, 5);
+				setWait(new TimedWait(getDriver(), 5));
 			} else {
 				Assert.fail(base.isDisplayed(submitNextButton)+" - Next (Arrow Mark) button is not clicked");
 			}
@@ -1,12 +1,16 @@
 package pages;
 
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
-import org.openqa.selenium.support.ui.WebDriverWait;
 import org.testng.Assert;
 
+import base.ElementState;
+import base.LocatorChain;
 import base.TestBase;
+import base.TimedWait;
 import utilities.CommonUtility;
 import utilities.WebForm;
 
@@ -25,7 +29,9 @@ public class LoginScreen extends TestBase {
 
 	final String checkInPlace_CheckInScreen = "//div[@class='fs-18 fw-600 my-1 text-center']";
 
-	final String signInWarningMessage = "//div[@class='col-10 text-left pb-2 pt-2 fs-16 sensorCheckin_warningMessageColor__1HzBU']";
+	final String signInWarningMessage = LocatorChain.of(
+			"//div[@class='col-10 text-left pb-2 pt-2 fs-16 sensorCheckin_warningMessageColor__1HzBU']",
+			"//div[contains(text(), 'need to sign in before you can order')]");
 
 	final String signInButton_CheckInScreen = "//button[@type='button'][contains(@class, 'btn btn-primary')]";
 
@@ -69,20 +75,17 @@ public class LoginScreen extends TestBase {
 	// Verify the messages displayed on the Check-in screen
 	public void verifyCheckInMessages() {
 
-		if (base.getElement(XPATH, welcomeMessageCheckInPageElement) != null) {
-			if (base.getElement(XPATH, signInWarningMessage) != null) {
-				String actualSignInMessage = base.gettext(signInWarningMessage);
-				Assert.assertEquals(actualSignInMessage, signInWarningMessage_CheckInPage);
-			} else {
-				Assert.assertFalse(base.isDisplayed(signInWarningMessage),
-						"Sign-in alert message is not being displayed on check-in screen");
-			}
-			String actualcheckInMessage = base.gettext(welcomeMessageCheckInPageElement);
-			Assert.assertEquals(actualcheckInMessage, expectedWelcomeMessage_CheckInPage);
-		} else {
-			Assert.assertNull(base.getElement(XPATH, welcomeMessageCheckInPageElement),
-					"Check-in message is not being displayed on Check-In screen");
-		}
+		// Both messages are read in one call
+		Map<String, ElementState> states = base
+				.waitForElementStates(Arrays.asList(welcomeMessageCheckInPageElement, signInWarningMessage));
+		ElementState checkInMessage = states.get(welcomeMessageCheckInPageElement);
+		ElementState signInMessage = states.get(signInWarningMessage);
+
+		Assert.assertTrue(checkInMessage.isDisplayed(), "Check-in message is not being displayed on Check-In screen");
+		Assert.assertTrue(signInMessage.isDisplayed(),
+				"Sign-in alert message is not being displayed on check-in screen");
+		Assert.assertEquals(signInMessage.getText(), signInWarningMessage_CheckInPage);
+		Assert.assertEquals(checkInMessage.getText(), expectedWelcomeMessage_CheckInPage);
 
 	}
 
@@ -92,7 +95,7 @@ public class LoginScreen extends TestBase {
 		if (base.getElement(XPATH, cancelCheckIn) != null) {
 			if (base.isDisplayed(cancelCheckIn)) {
 				base.tapElement(cancelCheckIn);
-				wait = new WebDriverWait(this.driver, 5);
+				setWait(new TimedWait(getDriver(), 5));
 			} else {
 				Assert.assertFalse(base.isDisplayed(cancelCheckIn), "Cancel Check-in link is not clicked");
 			}
@@ -107,12 +110,12 @@ public class LoginScreen extends TestBase {
 		// Save the check-in place text shown on check-in screen
 		checkInPlace = base.gettext(checkInPlace_CheckInScreen);
 		// Store the check-in place
-		commonUtility.checkInPlace = base.gettext(checkInPlace_CheckInScreen);
+		CommonUtility.setCheckInPlace(base.gettext(checkInPlace_CheckInScreen));
 		// Tap on Sign In button
 		if (base.getElement(XPATH, signInButton_CheckInScreen) != null) {
 			if (base.isDisplayed(signInButton_CheckInScreen)) {
 				base.tapElement(signInButton_CheckInScreen);
-				wait = new WebDriverWait(this.driver, 5);
+				setWait(new TimedWait(getDriver(), 5));
 			} else {
 				Assert.assertFalse(base.isDisplayed(signInButton_CheckInScreen), "SIGN IN button is not clicked");
 			}
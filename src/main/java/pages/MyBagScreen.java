@@ -4,6 +4,7 @@ import org.openqa.selenium.support.ui.ExpectedConditions;
 import org.openqa.selenium.support.ui.WebDriverWait;
 import org.testng.Assert;
 
+import base.Settle;
 import base.TestBase;
 import utilities.CommonUtility;
 import utilities.WebForm;
@@ -48,7 +49,7 @@ public class MyBagScreen extends TestBase {
 		if (base.getElement(XPATH, nextButton) != null) {
 			if (base.isDisplayed(nextButton)) {
 				base.tapElementUsingJS(nextButton);
-				base.delay(3000L);
+				base.waitToSettle(Settle.URL_CHANGE);
 			} else {
 				Assert.assertFalse(base.isDisplayed(nextButton), "Not able to tap on 'NEXT' tab");
 			}
@@ -79,7 +80,7 @@ public class MyBagScreen extends TestBase {
 		if (base.getElement(XPATH, payNowButton) != null ) {
 			if(base.isDisplayed(payNowButton)){
 				base.tapElementUsingJS(payNowButton); 
-				base.delay(3000L);
+				base.waitToSettle(Settle.URL_CHANGE);
 			} else {
 				Assert.assertFalse(base.isDisplayed(payNowButton), "Not able to tap on 'Pay Now' tab");
 			}
@@ -97,7 +98,8 @@ public class MyBagScreen extends TestBase {
 		if (base.getElement(XPATH, yes_Button) != null ) {
 			if(base.isDisplayed(yes_Button)){
 				base.tapElementUsingJS(yes_Button); 
-				base.delay(10000L);
+				// The order is placed once the seat dialog is confirmed
+				base.waitToSettle(Settle.URL_CHANGE);
 			} else {
 				Assert.assertFalse(base.isDisplayed(yes_Button), "Not able to tap on "+yes_Button+" button");
 			}
@@ -1,9 +1,10 @@
 package pages;
 
-import org.openqa.selenium.support.ui.WebDriverWait;
 import org.testng.Assert;
 
+import base.LocatorTemplate;
 import base.TestBase;
+import base.TimedWait;
 import utilities.CommonUtility;
 import utilities.WebForm;
 
@@ -20,17 +21,18 @@ public class OrderDetailsScreen extends TestBase {
 	final String selectedCategory = "//button[@type='button'][contains(@class, 'orders_selectedCategory')]";
 
 //	Changed XPATH
-	final String menu_Item = "//div[text()='temp']/ancestor::div[2]";
+	final LocatorTemplate menu_Item = LocatorTemplate.of("//div[text()={}]/ancestor::div[2]");
 
-	final String orderMenu = "//div[text()='temp']/ancestor::div[1]/descendant::button[@type='button']";
+	final LocatorTemplate orderMenu = LocatorTemplate
+			.of("//div[text()={}]/ancestor::div[1]/descendant::button[@type='button']");
 
-	String categoryToClick = "//button[text()='temp']";
+	final LocatorTemplate categoryToClick = LocatorTemplate.of("//button[text()={}]");
 
-	String modifier_Xpath = "//div[text()='temp']";
+	final LocatorTemplate modifier_Xpath = LocatorTemplate.of("//div[text()={}]");
 
-	final String orderTab_Xpath = "//div[text()='temp']";
+	final LocatorTemplate orderTab_Xpath = LocatorTemplate.of("//div[text()={}]");
 
-	final String menuTab_Xpath = "//div[contains(@class, 'tab-icon')]/div[text()='temp']";
+	final LocatorTemplate menuTab_Xpath = LocatorTemplate.of("//div[contains(@class, 'tab-icon')]/div[text()={}]");
 
 	final String addToBag = "//button[text()='Add to Bag']";
 
@@ -54,8 +56,7 @@ public class OrderDetailsScreen extends TestBase {
 			String actual_SelectedCategory = base.gettext(selectedCategory);
 			if (!actual_SelectedCategory.toLowerCase().trim()
 					.equalsIgnoreCase(expectedCategoryName.toLowerCase().trim())) {
-				categoryToClick = categoryToClick.replace("temp", expectedCategoryName);
-				base.tapElementUsingJS(categoryToClick);
+				base.tapElementUsingJS(categoryToClick.xpath(expectedCategoryName));
 				actual_SelectedCategory = base.gettext(selectedCategory);
 				Assert.assertEquals(actual_SelectedCategory.toLowerCase().trim(),
 						expectedCategoryName.toLowerCase().trim(),
@@ -71,11 +72,9 @@ public class OrderDetailsScreen extends TestBase {
 	public void scrollDownToMenuItem(String menuItem) {
 
 		storedMenuItem = menuItem;
-		String menuItemToBeClicked = menu_Item.replace("temp", menuItem);
+		String menuItemToBeClicked = menu_Item.xpath(menuItem);
 		if (base.getElement(XPATH, menuItemToBeClicked) != null) {
-			base.delay(1000L);
 			base.scrollToElementUsingJS(menuItemToBeClicked);
-			base.delay(1000L);
 			base.tapElementUsingJS(menuItemToBeClicked);
 		} else {
 			Assert.assertNull(base.getElement(XPATH, menuItemToBeClicked), menuItem + " item is not available");
@@ -85,7 +84,7 @@ public class OrderDetailsScreen extends TestBase {
 
 	public void tapOrderMenuButton(String input) {
 
-		String order_Menu = orderMenu.replace("temp", input);
+		String order_Menu = orderMenu.xpath(input);
 
 		if (base.getElement(XPATH, order_Menu) != null) {
 			base.tapElementUsingJS(order_Menu);
@@ -112,25 +111,21 @@ public class OrderDetailsScreen extends TestBase {
 
 	public void selectRequiredModifiers(String modifier1, String modifier2, String modifier3) {
 
-		String modifier1_Xpath = modifier_Xpath.replace("temp", modifier1);
-		String modifier2_Xpath = modifier_Xpath.replace("temp", modifier2);
+		String modifier1_Xpath = modifier_Xpath.xpath(modifier1);
+		String modifier2_Xpath = modifier_Xpath.xpath(modifier2);
 
-		String modifier3_Xpath = modifier_Xpath.replace("temp", modifier3);
+		String modifier3_Xpath = modifier_Xpath.xpath(modifier3);
 
 		if (base.getElement(XPATH, modifier1_Xpath) != null && base.isDisplayed(modifier1_Xpath)) {
-			base.delay(1000L);
 			base.tapElementUsingJS(modifier1_Xpath);
-			base.delay(1000L);
 			if (base.getElement(XPATH, modifier2_Xpath) != null) {
 				base.scrollToElementUsingJS(modifier1_Xpath
 						+ "/ancestor::div/div[contains(@class, 'modifiers_modifierNameContainer')]/descendant::span[contains(text(),'Pick')]");
 				base.tapElementUsingJS(modifier2_Xpath);
-				base.delay(1000L);
 				if (base.getElement(XPATH, modifier3_Xpath) != null) {
 					base.scrollToElementUsingJS(modifier2_Xpath
 							+ "/ancestor::div/div[contains(@class, 'modifiers_modifierNameContainer')]/descendant::span[contains(text(),'Pick')]");
 					base.tapElementUsingJS(modifier3_Xpath);
-					base.delay(1000L);
 				} else {
 					Assert.fail(modifier3_Xpath + " element is not found");
 				}
@@ -147,7 +142,7 @@ public class OrderDetailsScreen extends TestBase {
 		if (base.getElement(XPATH, addToBag) != null) {
 			if (base.isDisplayed(addToBag)) {
 				base.tapElementUsingJS(addToBag);
-				wait = new WebDriverWait(this.driver, 5);
+				setWait(new TimedWait(getDriver(), 5));
 			} else {
 				Assert.assertFalse(base.isDisplayed(addToBag), "Not able to click Add to Bag button");
 			}
@@ -162,7 +157,7 @@ public class OrderDetailsScreen extends TestBase {
 	public void tapOnRequiredTab(String tabToClick) {
 		// TODO Auto-generated method stub
 
-		String bottomMenu_Card = menuTab_Xpath.replace("temp", tabToClick);
+		String bottomMenu_Card = menuTab_Xpath.xpath(tabToClick);
 
 		if (base.getElement(XPATH, bottomMenu_Card) != null) {
 			if (base.isDisplayed(bottomMenu_Card)) {
@@ -178,7 +173,7 @@ public class OrderDetailsScreen extends TestBase {
 
 	public void selectRequiredMenu(String selectMenuTab) {
 		// TODO Auto-generated method stub
-		String orderMenu_Card = orderTab_Xpath.replace("temp", selectMenuTab);
+		String orderMenu_Card = orderTab_Xpath.xpath(selectMenuTab);
 
 		if (base.getElement(XPATH, orderMenu_Card) != null) {
 			if (base.isDisplayed(orderMenu_Card)) {
@@ -14,7 +14,11 @@ import org.openqa.selenium.support.ui.ExpectedConditions;
 import org.openqa.selenium.support.ui.WebDriverWait;
 import org.testng.Assert;
 
+import base.LocatorChain;
+import base.LocatorTemplate;
+import base.Settle;
 import base.TestBase;
+import base.TimedWait;
 import io.appium.java_client.MobileElement;
 import utilities.CommonUtility;
 import utilities.WebForm;
@@ -45,7 +49,9 @@ public class PaymentScreen extends TestBase {
 
 	final String pay_NowButton = "//button[@class='btn btn-primary od-btn-primary w-100']";
 
-	final String pay_At_Restaurant = "//button[@class='selectedCart_lineHeight__1cko_ btn btn-secondary od-btn-secondary w-100']";
+	final String pay_At_Restaurant = LocatorChain.of(
+			"//button[@class='selectedCart_lineHeight__1cko_ btn btn-secondary od-btn-secondary w-100']",
+			"//button[contains(text(), 'Pay at the restaurant')]");
 
 	final String payLater = "//button[contains(text(), 'pay later')]";
 
@@ -101,9 +107,9 @@ public class PaymentScreen extends TestBase {
 
 	final String noTipButton = "//div[contains(text(),'No Tip')]";
 
-	String tipAmount = "//div[contains(@class,'tips')]/div[contains(text(),'temp')]";
+	final LocatorTemplate tipAmount = LocatorTemplate.of("//div[contains(@class,'tips')]/div[contains(text(),{})]");
 	
-	final String scrollToSection = "//div[contains(text(), 'temp')]";
+	final LocatorTemplate scrollToSection = LocatorTemplate.of("//div[contains(text(), {})]");
 
 	// the error fields.
 	final String FORM_ERROR = ".//*[@class='error']";
@@ -146,7 +152,6 @@ public class PaymentScreen extends TestBase {
 		if (base.getElement(XPATH, pay_NowButton) != null) {
 			if (base.isDisplayed(pay_NowButton)) {
 				base.tapElementUsingJS(pay_NowButton);
-				base.delay(1500L);
 				if (base.gettext(pay_NowButton).equalsIgnoreCase("Validating")) {
 					System.out.println("Text on the button ::: " + base.gettext(pay_NowButton));
 					base.tapElement(pay_NowButton);
@@ -191,7 +196,7 @@ public class PaymentScreen extends TestBase {
 		if (base.getElement(XPATH, confirmButton) != null) {
 			if (base.isDisplayed(confirmButton)) {
 				base.tapElementUsingJS(confirmButton);
-				base.delay(6000L);
+				base.waitToSettle(Settle.URL_CHANGE);
 			} else {
 				Assert.assertFalse(base.isDisplayed(confirmButton), "Not able to tap on 'Confrim' button");
 			}
@@ -222,7 +227,7 @@ public class PaymentScreen extends TestBase {
 		base.waitForVisibility(base.getElement(XPATH, confirmation_CheckInPlace));
 		System.out.println("Displayed OR not :: " + base.isDisplayed(confirmation_CheckInPlace));
 		String confirmation_CheckInPlaceText = base.gettext(confirmation_CheckInPlace);
-		Assert.assertTrue(confirmation_CheckInPlaceText.trim().equalsIgnoreCase(commonUtility.checkInPlace.trim()),
+		Assert.assertTrue(confirmation_CheckInPlaceText.trim().equalsIgnoreCase(CommonUtility.getCheckInPlace().trim()),
 				"Check-in place at the payment confirmation page is not as same as the check-in place displayed at login screen");
 
 	}
@@ -231,12 +236,11 @@ public class PaymentScreen extends TestBase {
 	public void scrollTillASection(String scrollToText) {
 		// TODO Auto-generated method stub  //div[contains(text(), 'Add a tip')]
 		
-		String scrollToRequiredSec = scrollToSection.replace("temp", scrollToText);
+		String scrollToRequiredSec = scrollToSection.xpath(scrollToText);
 		System.out.println("Scroll To Element ::: To text :: "+scrollToText);
 		if (base.getElement(XPATH, scrollToRequiredSec) != null) {
-			base.delay(1000L);
 			base.scrollToElementUsingJS(scrollToRequiredSec);
-			base.delay(1000L);
+			base.waitToSettle();
 		} else {
 			Assert.assertNull(base.getElement(XPATH, scrollToRequiredSec), scrollToText + " item is not available");
 		}
@@ -247,7 +251,6 @@ public class PaymentScreen extends TestBase {
 		if (base.getElement(XPATH, noTipButton) != null) {
 			if (base.isDisplayed(noTipButton)) {
 				base.tapElementUsingJS(noTipButton);
-				base.delay(1000L);
 			} else {
 				Assert.fail(base.isDisplayed(noTipButton) + " - Tip button is not displayed");
 			}
@@ -258,21 +261,21 @@ public class PaymentScreen extends TestBase {
 	
 	public void selectTip_Amount(String tip_Amount) {
 		// TODO Auto-generated method stub
+		String tipButton;
 		if(tip_Amount.contains("%")) {
-			tipAmount = tipAmount.replace("temp", tip_Amount.replaceAll("[^a-zA-Z0-9]", " ").trim());
+			tipButton = tipAmount.xpath(tip_Amount.replaceAll("[^a-zA-Z0-9]", " ").trim());
 		} else {
-			tipAmount = tipAmount.replace("temp", tip_Amount.trim());
+			tipButton = tipAmount.xpath(tip_Amount.trim());
 		}
 		
-		if (base.getElement(XPATH, tipAmount) != null) {
-			if (base.isDisplayed(tipAmount)) {
-				base.tapElementUsingJS(tipAmount);
-				base.delay(1000L);
+		if (base.getElement(XPATH, tipButton) != null) {
+			if (base.isDisplayed(tipButton)) {
+				base.tapElementUsingJS(tipButton);
 			} else {
-				Assert.fail(base.isDisplayed(tipAmount) + " - Tip button is not displayed");
+				Assert.fail(base.isDisplayed(tipButton) + " - Tip button is not displayed");
 			}
 		} else {
-			Assert.fail("No Tip button is not displayed" + base.getElement(XPATH, tipAmount));
+			Assert.fail("No Tip button is not displayed" + base.getElement(XPATH, tipButton));
 		}
 		
 	}
@@ -309,8 +312,8 @@ public class PaymentScreen extends TestBase {
 	public void addUSAECardDetails(String cardNumberToEnter, String expiryDateToEnter, String CVVToEnter,
 			String full_Name, String zipCodeToEnter) {
 		// TODO Auto-generated method stub
-		base.delay(6000L);
-		WebDriverWait wait = new WebDriverWait(driver, 20);
+		base.waitToSettle();
+		WebDriverWait wait = new TimedWait(getDriver(), 20);
 		try {
 			wait.until(ExpectedConditions.frameToBeAvailableAndSwitchToIt(By.id("paymentCardIFrame")));
 		} catch (NoSuchElementException | TimeoutException e) {
@@ -322,7 +325,7 @@ public class PaymentScreen extends TestBase {
 		base.populateFields(add_CardNumber, cardNumberToEnter);
 		base.populateFields(add_ExpiryDate, expiryDateToEnter);
 		base.populateFields(add_CVV, CVVToEnter);
-		driver.switchTo().defaultContent();
+		getDriver().switchTo().defaultContent();
 		base.populateFields(fullName_USAE, full_Name);
 		base.populateFields(add_ZipCode, zipCodeToEnter);
 	}
@@ -332,9 +335,14 @@ public class PaymentScreen extends TestBase {
 		System.out.println("Inside USAE Add Button");
 		if (base.getElement(XPATH, addCardButton) != null) {
 			if (base.isDisplayed(addCardButton)) {
-				base.delay(4000L);
 				base.tapElementUsingJS(addCardButton);
-				base.delay(4000L);
+				// The card form closes once the card is added
+				try {
+					new TimedWait(getDriver(), 20)
+							.until(ExpectedConditions.invisibilityOfElementLocated(By.id("paymentCardIFrame")));
+				} catch (TimeoutException e) {
+					Assert.fail("Card form still open after tapping on 'Add Card' button");
+				}
 			} else {
 				Assert.assertFalse(base.isDisplayed(addCardButton), "Not able to tap on 'Add Card' button");
 			}
@@ -347,9 +355,9 @@ public class PaymentScreen extends TestBase {
 	public void addShift4CardDetails(String cardType, String card_Number, String expirationMonth, String expirationYear,
 			String CVV_Number, String zip_Code) {
 		// TODO Auto-generated method stub
-		base.delay(5000L);
+		base.waitToSettle();
 
-		WebDriverWait wait = new WebDriverWait(driver, 20);
+		WebDriverWait wait = new TimedWait(getDriver(), 20);
 		wait.until(ExpectedConditions.frameToBeAvailableAndSwitchToIt(base.getElement(XPATH, "//iframe")));
 		System.out.println("Switched to iFrame");
 
@@ -367,8 +375,7 @@ public class PaymentScreen extends TestBase {
 		if (base.getElement(XPATH, add_shift4PayCard) != null) {
 			if (base.isDisplayed(add_shift4PayCard)) {
 				base.tapElementUsingJS(add_shift4PayCard);
-				base.delay(1500L);
-				driver.switchTo().defaultContent();
+				getDriver().switchTo().defaultContent();
 //				base.allowPermissionPopup();
 			} else {
 				Assert.assertFalse(base.isDisplayed(add_shift4PayCard), "Not able to tap on 'Add Card' button");
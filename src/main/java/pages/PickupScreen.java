@@ -9,10 +9,10 @@ import java.util.List;
 
 import org.openqa.selenium.By;
 import org.openqa.selenium.Keys;
-import org.openqa.selenium.support.ui.WebDriverWait;
 import org.testng.Assert;
 
 import base.TestBase;
+import base.TimedWait;
 import utilities.CommonUtility;
 import utilities.WebForm;
 
@@ -73,14 +73,13 @@ public class PickupScreen extends TestBase {
 	public void populatePickUpScreenFields(String guestName, String pickUpDate, String pickUpTime) {
 		// TODO Auto-generated method stub
 		base.populateFields(name_Field, guestName);
-		base.delay(500L);
 
 		if (pickUpDate.equalsIgnoreCase("Today")) {
 			base.populateFields(pickUpDate_Field, pickUpDate);
 		} else if (pickUpDate.equalsIgnoreCase("Tomorrow")) {
 			pickUpDate = getPickUpDate(1);
 		}
-		base.delay(500L);
+		base.waitToSettle();
 		base.populateFields(pickUpDate_Field, pickUpDate);
 		base.pressENTER(pickUpDate_Field);
 
@@ -92,13 +91,12 @@ public class PickupScreen extends TestBase {
 	public void populateDeliveryScreenFields(String guestName, String deliveryDate, String deliveryTime, String address, String city, String state, String zipCode) {
 		// TODO Auto-generated method stub
 		base.populateFields(name_Field, guestName);
-		base.delay(500L);
 		if (deliveryDate.equalsIgnoreCase("Today")) {
 			deliveryDate = getPickUpDate(0);
 		} else if (deliveryDate.equalsIgnoreCase("Tomorrow")) {
 			deliveryDate = getPickUpDate(1);
 		}
-		base.delay(500L);
+		base.waitToSettle();
 		base.populateFields(deliveryDate_Field, deliveryDate);
 		base.pressENTER(deliveryDate_Field);
 
@@ -133,7 +131,7 @@ public class PickupScreen extends TestBase {
 		if (base.getElement(XPATH, nextButton) != null) {
 			if (base.isDisplayed(nextButton)) {
 				base.tapElementUsingJS(nextButton);
-				wait = new WebDriverWait(this.driver, 5);
+				setWait(new TimedWait(getDriver(), 5));
 			} else {
 				Assert.fail(base.isDisplayed(nextButton) + " - Next button is not displayed");
 			}
@@ -170,7 +168,7 @@ public class PickupScreen extends TestBase {
 		if (base.getElement(XPATH, deliveryTab) != null) {
 			if (base.isDisplayed(deliveryTab)) {
 				base.tapElementUsingJS(deliveryTab);
-				wait = new WebDriverWait(this.driver, 5);
+				setWait(new TimedWait(getDriver(), 5));
 //				base.allowPermissionPopup();
 			} else {
 				Assert.fail(base.isDisplayed(deliveryTab) + " - Delivery Tab is not displayed");
@@ -65,7 +65,7 @@ public class SpotNumberScreen extends TestBase {
 		expectedMessageKeys = commonUtility.flatten(formData)[commonUtility.flatten(formData).length - 1];
 		
 		// Store the check-in place
-		commonUtility.checkInPlace = base.gettext(checkedInPlaceElement);
+		CommonUtility.setCheckInPlace(base.gettext(checkedInPlaceElement));
 		// To check if the size of formdata and fields are same
 		boolean outcome = webForm.checkFormFieldsData(formData, fields);
 		Assert.assertTrue(webForm.checkFormFieldsData(formData, fields));
@@ -88,7 +88,6 @@ public class SpotNumberScreen extends TestBase {
 		if (base.getElement(XPATH, submitNextButton) != null) {
 			if (base.isDisplayed(submitNextButton)) {
 				base.tapElementUsingJS(submitNextButton);
-				base.delay(1000L);
 			} else {
 				Assert.assertTrue(base.isDisplayed(submitNextButton), "Next arrow button is not clicked");
 			}
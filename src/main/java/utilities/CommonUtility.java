@@ -6,13 +6,16 @@ import java.util.Set;
 
 import org.openqa.selenium.By;
 
+import base.LocatorTemplate;
 import base.TestBase;
+import base.WaitPolicy;
 
 public class CommonUtility extends TestBase {
 
 	TestBase base = new TestBase();
 
-	public static String checkInPlace;
+	// Check-in place of the scenario on the current thread
+	private static final ThreadLocal<String> CHECK_IN_PLACE = new ThreadLocal<String>();
 
 	final String iOS_Settings_BundleID = "com.apple.Preferences";
 
@@ -26,7 +29,8 @@ public class CommonUtility extends TestBase {
 
 	final String iOS_Settings_SwitchLargeAccessibility = "//*[@name='Larger Accessibility Sizes'][2]";
 
-	String iOS_Settings_SwitchLargeAccessibility_ON = "//*[@name='Larger Accessibility Sizes'][2][@value='temp']";
+	final LocatorTemplate iOS_Settings_SwitchLargeAccessibility_ON = LocatorTemplate
+			.of("//*[@name='Larger Accessibility Sizes'][2][@value={}]");
 
 	final String changeFontTo = "//*[@name='Font size']/XCUIElementTypeSlider";
 
@@ -44,11 +48,9 @@ public class CommonUtility extends TestBase {
 						if (base.isDisplayed(iOS_Settings_SwitchLargeAccessibility)) {
 							String text = base.gettext(iOS_Settings_SwitchLargeAccessibility, "value");
 							if (text.equals("0")) {
-								iOS_Settings_SwitchLargeAccessibility_ON = iOS_Settings_SwitchLargeAccessibility_ON
-										.replace("temp", text);
-								base.tapElement(iOS_Settings_SwitchLargeAccessibility_ON);
+								base.tapElement(iOS_Settings_SwitchLargeAccessibility_ON.xpath(text));
 							}
-							driver.findElement(By.xpath(changeFontTo)).sendKeys(scaleFactor);
+							WaitPolicy.find(getDriver(), By.xpath(changeFontTo)).sendKeys(scaleFactor);
 						}
 					}
 				}
@@ -104,4 +106,23 @@ public class CommonUtility extends TestBase {
 		return list.toArray(new String[0]);
 	}
 
+	/**
+	 * To get the check-in place stored by the scenario of the current thread
+	 */
+	public static String getCheckInPlace() {
+		return CHECK_IN_PLACE.get();
+	}
+
+	/**
+	 * To store the check-in place for the scenario of the current thread, null to
+	 * clear it when the scenario ends
+	 */
+	public static void setCheckInPlace(String checkInPlace) {
+		if (checkInPlace == null) {
+			CHECK_IN_PLACE.remove();
+		} else {
+			CHECK_IN_PLACE.set(checkInPlace);
+		}
+	}
+
 }
@@ -0,0 +1,18 @@
+package utilities;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Sheet of InputData.xlsx a test method reads through the ExcelRows data
+ * provider of {@link StaticDataProvider}
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface ExcelSheet {
+
+	String value();
+
+}
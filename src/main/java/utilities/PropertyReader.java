@@ -0,0 +1,32 @@
+package utilities;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Properties;
+
+public class PropertyReader {
+
+	/**
+	 * To load a properties file from the class path
+	 * 
+	 * @param filePath path of the file, relative to the class path root
+	 * @return properties, empty when the file is not found
+	 */
+	public static Properties load(String filePath) {
+		Properties prop = new Properties();
+		try (InputStream input = PropertyReader.class.getClassLoader().getResourceAsStream(filePath)) {
+
+			if (input == null) {
+				System.out.println("Sorry, unable to find " + filePath);
+				return prop;
+			}
+
+			prop.load(input);
+
+		} catch (IOException ex) {
+			ex.printStackTrace();
+		}
+		return prop;
+	}
+
+}
@@ -1,15 +1,58 @@
 package utilities;
 
 import java.io.IOException;
+import java.lang.reflect.Method;
+import java.util.Iterator;
 
 import org.testng.annotations.DataProvider;
 
 public class StaticDataProvider {
 
-	//Data provider returns each row as one string object
+	//Data provider returns each row as one string object; a partitioned sheet gives the row of the scenario's slot
 	@DataProvider(name = "ExcelData")
 	public static String[][] getExcelData(String sheetName) throws IOException{			
-			String[][] formData = ExcelUtility.readData(sheetName);
+			String[][] formData = TestDataPartition.table(sheetName);
 			return formData;
 	}
-}
\ No newline at end of file
+
+	/**
+	 * Data provider streaming the rows of the sheet named by the @ExcelSheet of
+	 * the test method, one invocation per row with the row as its String[]
+	 * parameter; the rows are read as TestNG asks for them, so a large sheet
+	 * never sits in heap whole
+	 */
+	@DataProvider(name = "ExcelRows")
+	public static Iterator<Object[]> getExcelRows(Method method) throws IOException {
+		ExcelSheet sheet = method.getAnnotation(ExcelSheet.class);
+		if (sheet == null) {
+			throw new IllegalArgumentException(method.getName() + " has no @ExcelSheet for the ExcelRows data provider");
+		}
+		final StreamingSheetReader rows = StreamingSheetReader.open(sheet.value());
+		return new Iterator<Object[]>() {
+
+			// The parser thread is stopped once the rows end or fail
+			@Override
+			public boolean hasNext() {
+				boolean more = false;
+				try {
+					more = rows.hasNext();
+					return more;
+				} finally {
+					if (!more) {
+						rows.close();
+					}
+				}
+			}
+
+			@Override
+			public Object[] next() {
+				try {
+					return new Object[] { rows.next() };
+				} catch (RuntimeException e) {
+					rows.close();
+					throw e;
+				}
+			}
+		};
+	}
+}
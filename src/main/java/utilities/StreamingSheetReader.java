@@ -0,0 +1,245 @@
+package utilities;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+import org.apache.poi.ooxml.util.SAXHelper;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler.SheetContentsHandler;
+import org.apache.poi.xssf.usermodel.XSSFComment;
+import org.xml.sax.InputSource;
+import org.xml.sax.XMLReader;
+
+/**
+ * Rows of one sheet, read with the POI event model while they are consumed,
+ * for sheets too large for {@link TestDataRegistry}. A parser thread hands the
+ * rows over through a queue of BUFFER_ROWS, so memory stays the same whatever
+ * the number of rows; only the shared strings table of the workbook is held
+ * whole, as POI reads it.
+ *
+ * Rows have the layout of ExcelUtility.readData: the header row is left out,
+ * each row has as many cells as the header, empty cells are "". Close the
+ * reader when not reading to the end, which stops the parser.
+ */
+public final class StreamingSheetReader implements Iterator<String[]>, Closeable {
+
+	private static final int BUFFER_ROWS = 256;
+
+	// Put after the last row
+	private static final Object END = new Object();
+
+	private final BlockingQueue<Object> queue = new ArrayBlockingQueue<Object>(BUFFER_ROWS);
+
+	private final Thread parser;
+
+	// Set by close, after which nothing is queued any more
+	private volatile boolean closed;
+
+	private Object next;
+
+	private StreamingSheetReader(File workbook, String sheetName) {
+		parser = new Thread(() -> parse(workbook, sheetName), "xlsx-" + sheetName);
+		parser.setDaemon(true);
+		parser.start();
+	}
+
+	/**
+	 * To stream a sheet of InputData.xlsx
+	 *
+	 * @param sheetName sheet to read
+	 */
+	public static StreamingSheetReader open(String sheetName) throws IOException {
+		URL resource = StreamingSheetReader.class.getClassLoader().getResource(TestDataRegistry.WORKBOOK);
+		if (resource == null || !"file".equals(resource.getProtocol())) {
+			throw new IOException(TestDataRegistry.WORKBOOK + " is not a file on the classpath");
+		}
+		try {
+			return open(new File(resource.toURI()), sheetName);
+		} catch (URISyntaxException e) {
+			throw new IOException(e);
+		}
+	}
+
+	/**
+	 * To stream a sheet of a workbook file, which is opened read-only and not
+	 * loaded whole
+	 *
+	 * @param workbook  .xlsx file
+	 * @param sheetName sheet to read
+	 */
+	public static StreamingSheetReader open(File workbook, String sheetName) throws IOException {
+		if (!workbook.isFile()) {
+			throw new IOException(workbook + " not found");
+		}
+		return new StreamingSheetReader(workbook, sheetName);
+	}
+
+	@Override
+	public boolean hasNext() {
+		if (next == null) {
+			try {
+				next = queue.take();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IllegalStateException("Interrupted while reading the sheet", e);
+			}
+		}
+		if (next instanceof RuntimeException) {
+			RuntimeException failure = (RuntimeException) next;
+			next = END;
+			throw failure;
+		}
+		return next != END;
+	}
+
+	@Override
+	public String[] next() {
+		if (!hasNext()) {
+			throw new NoSuchElementException();
+		}
+		String[] row = (String[]) next;
+		next = null;
+		return row;
+	}
+
+	/**
+	 * To stop the parser, when the rows are not read to the end
+	 */
+	@Override
+	public void close() {
+		closed = true;
+		parser.interrupt();
+		next = END;
+	}
+
+	private void parse(File workbook, String sheetName) {
+		try (OPCPackage pkg = OPCPackage.open(workbook, PackageAccess.READ)) {
+			XSSFReader reader = new XSSFReader(pkg);
+			XSSFReader.SheetIterator sheets = (XSSFReader.SheetIterator) reader.getSheetsData();
+			while (sheets.hasNext()) {
+				try (InputStream sheet = sheets.next()) {
+					if (sheets.getSheetName().equals(sheetName)) {
+						XMLReader xml = SAXHelper.newXMLReader();
+						xml.setContentHandler(new XSSFSheetXMLHandler(reader.getStylesTable(), null,
+								new ReadOnlySharedStringsTable(pkg), new Rows(), new DataFormatter(), false));
+						xml.parse(new InputSource(sheet));
+						queue.put(END);
+						return;
+					}
+				}
+			}
+			queue.put(new IllegalArgumentException("No sheet " + sheetName + " in " + workbook));
+		} catch (Stopped e) {
+			// Closed by the consumer
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (Exception e) {
+			if (closed) {
+				// A stop the parser wrapped in its own exception
+				return;
+			}
+			try {
+				// Waits for room, so the failure is not lost behind a full buffer
+				queue.put(new IllegalStateException("Sheet " + sheetName + " of " + workbook + " not read", e));
+			} catch (InterruptedException stopped) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	/**
+	 * Thrown out of the SAX handler to stop the parse when the reader is closed
+	 */
+	private static class Stopped extends RuntimeException {
+
+		private static final long serialVersionUID = 1L;
+	}
+
+	/**
+	 * Collects the cells of a row and queues the row when it ends
+	 */
+	private class Rows implements SheetContentsHandler {
+
+		// -1 until the header is seen
+		private int columns = -1;
+
+		private int lastRow = -1;
+
+		private List<String> cells;
+
+		@Override
+		public void startRow(int rowNum) {
+			// Rows with no cell are not in the sheet XML; give them as empty rows
+			if (columns >= 0) {
+				for (int gap = lastRow + 1; gap < rowNum; gap++) {
+					put(blank());
+				}
+			}
+			lastRow = rowNum;
+			cells = new ArrayList<String>();
+		}
+
+		@Override
+		public void cell(String reference, String formattedValue, XSSFComment comment) {
+			int column = new CellReference(reference).getCol();
+			while (cells.size() < column) {
+				cells.add("");
+			}
+			cells.add(formattedValue != null ? formattedValue : "");
+		}
+
+		@Override
+		public void endRow(int rowNum) {
+			if (columns < 0) {
+				columns = 0;
+				for (String cell : cells) {
+					if (!cell.isEmpty()) {
+						columns = cells.size();
+					}
+				}
+				return;
+			}
+			String[] row = blank();
+			for (int i = 0; i < Math.min(columns, cells.size()); i++) {
+				row[i] = cells.get(i);
+			}
+			put(row);
+		}
+
+		@Override
+		public void headerFooter(String text, boolean isHeader, String tagName) {
+		}
+
+		private String[] blank() {
+			String[] row = new String[columns];
+			Arrays.fill(row, "");
+			return row;
+		}
+
+		private void put(String[] row) {
+			try {
+				queue.put(row);
+			} catch (InterruptedException e) {
+				throw new Stopped();
+			}
+		}
+	}
+
+}
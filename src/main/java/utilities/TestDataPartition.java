@@ -0,0 +1,160 @@
+package utilities;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import base.DevicePool;
+
+/**
+ * Splits the rows of the sheets that hold backend state (accounts, spot
+ * numbers, cards) into slots, so that scenarios running in parallel never
+ * sign in with the same account or check in at the same spot. Slot N is row N
+ * of every partitioned sheet; a scenario thread leases a slot the first time
+ * it reads one of these sheets, gets that row for all of them until the
+ * scenario ends, and gives the slot back in the After hook.
+ *
+ * <pre>
+ * partitionedSheets=Login_Success,SpotNo_Success,Payment_Success
+ * </pre>
+ *
+ * Scenarios run in parallel on as many threads as there are devices. With
+ * fewer slots than devices, init warns and a scenario waits for a slot to be
+ * given back (testDataLeaseTimeout seconds) rather than share one; with no
+ * slot at all, init fails. Sheets not listed are served whole, as before.
+ */
+public final class TestDataPartition {
+
+	// Slot leased by the scenario of the thread
+	private static final ThreadLocal<Slot> LEASED = new ThreadLocal<Slot>();
+
+	private static final BlockingQueue<Slot> FREE = new LinkedBlockingQueue<Slot>();
+
+	// Partitioned sheet names, null until init
+	private static volatile List<String> sheets;
+
+	private static volatile long leaseTimeoutSeconds = 30;
+
+	private TestDataPartition() {
+	}
+
+	/**
+	 * Row N of every partitioned sheet
+	 */
+	private static final class Slot {
+
+		private final int index;
+
+		private final Map<String, String[]> rows = new LinkedHashMap<String, String[]>();
+
+		Slot(int index) {
+			this.index = index;
+		}
+	}
+
+	/**
+	 * To build the slots once for the run
+	 *
+	 * @param config content of config.properties
+	 * @throws IOException           when the workbook cannot be read
+	 * @throws IllegalStateException when a partitioned sheet has no data row
+	 */
+	public static synchronized void init(Properties config) throws IOException {
+		if (sheets != null) {
+			return;
+		}
+		leaseTimeoutSeconds = Long.parseLong(config.getProperty("testDataLeaseTimeout", "30"));
+		List<String> names = new ArrayList<String>();
+		for (String name : config.getProperty("partitionedSheets", "").split(",")) {
+			if (name.trim().isEmpty()) {
+				continue;
+			}
+			if (TestDataRegistry.sheetNames().contains(name.trim())) {
+				names.add(name.trim());
+			} else {
+				System.out.println("Partitioned sheet " + name.trim() + " is not in " + TestDataRegistry.WORKBOOK);
+			}
+		}
+
+		int slots = Integer.MAX_VALUE;
+		for (String name : names) {
+			slots = Math.min(slots, TestDataRegistry.rows(name).size());
+		}
+		for (int i = 0; !names.isEmpty() && i < slots; i++) {
+			Slot slot = new Slot(i);
+			for (String name : names) {
+				slot.rows.put(name, TestDataRegistry.rows(name).get(i).toArray(new String[0]));
+			}
+			FREE.offer(slot);
+		}
+		if (!names.isEmpty()) {
+			if (slots == 0) {
+				throw new IllegalStateException("No test data slot: a sheet of " + names + " has no data row");
+			}
+			int parallel = DevicePool.load(config).size();
+			if (slots < parallel) {
+				System.out.println("Only " + slots + " test data slot(s) of " + names + " for " + parallel
+						+ " devices: scenarios wait up to " + leaseTimeoutSeconds + " s for a slot, add rows to run all devices");
+			}
+			System.out.println("Test data slots::: " + slots + " over " + names);
+		}
+		sheets = Collections.unmodifiableList(names);
+	}
+
+	/**
+	 * To get the rows of a sheet for the scenario of the current thread: the row
+	 * of its slot for a partitioned sheet, leasing a slot first if it has none,
+	 * or every row otherwise
+	 *
+	 * @param sheetName sheet of InputData.xlsx
+	 * @return rows as the page objects take them, a copy the caller may change
+	 * @throws IOException           when the workbook cannot be read
+	 * @throws IllegalStateException when no slot is given back in time
+	 */
+	public static String[][] table(String sheetName) throws IOException {
+		List<String> partitioned = sheets;
+		if (partitioned == null || !partitioned.contains(sheetName)) {
+			return TestDataRegistry.table(sheetName);
+		}
+		Slot slot = LEASED.get();
+		if (slot == null) {
+			slot = lease();
+			LEASED.set(slot);
+		}
+		return new String[][] { slot.rows.get(sheetName).clone() };
+	}
+
+	private static Slot lease() {
+		try {
+			Slot slot = FREE.poll(leaseTimeoutSeconds, TimeUnit.SECONDS);
+			if (slot == null) {
+				throw new IllegalStateException("No test data slot of " + sheets + " was given back within "
+						+ leaseTimeoutSeconds + " s; add rows to these sheets for more parallel scenarios");
+			}
+			System.out.println("Test data slot " + slot.index + " leased by " + Thread.currentThread().getName());
+			return slot;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while waiting for a test data slot", e);
+		}
+	}
+
+	/**
+	 * To give back the slot of the current thread, when its scenario ends
+	 */
+	public static void release() {
+		Slot slot = LEASED.get();
+		LEASED.remove();
+		if (slot != null) {
+			FREE.offer(slot);
+		}
+	}
+
+}
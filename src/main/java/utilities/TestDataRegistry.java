@@ -0,0 +1,121 @@
+package utilities;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+
+/**
+ * Every sheet of TestData/InputData.xlsx, parsed once and closed, and served to
+ * all scenario threads as immutable rows. A sheet keeps the layout
+ * ExcelUtility.readData has always returned: the header row left out, as many
+ * columns as the header has, empty cells as "".
+ */
+public final class TestDataRegistry {
+
+	public static final String WORKBOOK = "TestData/InputData.xlsx";
+
+	// Sheet name to its rows, set once
+	private static volatile Map<String, List<List<String>>> sheets;
+
+	private TestDataRegistry() {
+	}
+
+	/**
+	 * To parse the workbook, once for the suite; later calls return at once
+	 *
+	 * @throws IOException when the workbook cannot be read
+	 */
+	public static void load() throws IOException {
+		if (sheets != null) {
+			return;
+		}
+		synchronized (TestDataRegistry.class) {
+			if (sheets == null) {
+				sheets = parse();
+			}
+		}
+	}
+
+	private static Map<String, List<List<String>>> parse() throws IOException {
+		InputStream input = TestDataRegistry.class.getClassLoader().getResourceAsStream(WORKBOOK);
+		if (input == null) {
+			throw new IOException(WORKBOOK + " is not on the classpath");
+		}
+		Map<String, List<List<String>>> parsed = new LinkedHashMap<String, List<List<String>>>();
+		DataFormatter formatter = new DataFormatter();
+		try (InputStream in = input; XSSFWorkbook workbook = new XSSFWorkbook(in)) {
+			for (Sheet sheet : workbook) {
+				parsed.put(sheet.getSheetName(), rowsOf(sheet, formatter));
+			}
+		}
+		return Collections.unmodifiableMap(parsed);
+	}
+
+	private static List<List<String>> rowsOf(Sheet sheet, DataFormatter formatter) {
+		Row header = sheet.getRow(sheet.getFirstRowNum());
+		if (header == null) {
+			return Collections.emptyList();
+		}
+		int totalRows = sheet.getLastRowNum() - sheet.getFirstRowNum();
+		int totalCols = header.getPhysicalNumberOfCells();
+
+		List<List<String>> rows = new ArrayList<List<String>>(totalRows);
+		for (int i = 0; i < totalRows; i++) {
+			Row row = sheet.getRow(sheet.getFirstRowNum() + i + 1);
+			List<String> cells = new ArrayList<String>(totalCols);
+			for (int j = 0; j < totalCols; j++) {
+				cells.add(row != null ? formatter.formatCellValue(row.getCell(j)) : "");
+			}
+			rows.add(Collections.unmodifiableList(cells));
+		}
+		return Collections.unmodifiableList(rows);
+	}
+
+	/**
+	 * To get the rows of a sheet
+	 *
+	 * @param sheetName sheet of InputData.xlsx
+	 * @return rows without the header, read-only
+	 * @throws IOException              when the workbook cannot be read
+	 * @throws IllegalArgumentException when there is no such sheet
+	 */
+	public static List<List<String>> rows(String sheetName) throws IOException {
+		load();
+		List<List<String>> rows = sheets.get(sheetName);
+		if (rows == null) {
+			throw new IllegalArgumentException("No sheet " + sheetName + " in " + WORKBOOK + ", found " + sheets.keySet());
+		}
+		return rows;
+	}
+
+	/**
+	 * To get the rows of a sheet as the String[][] the page objects take, a copy
+	 * the caller may change
+	 *
+	 * @param sheetName sheet of InputData.xlsx
+	 */
+	public static String[][] table(String sheetName) throws IOException {
+		List<List<String>> rows = rows(sheetName);
+		String[][] table = new String[rows.size()][];
+		for (int i = 0; i < rows.size(); i++) {
+			table[i] = rows.get(i).toArray(new String[0]);
+		}
+		return table;
+	}
+
+	public static Set<String> sheetNames() throws IOException {
+		load();
+		return sheets.keySet();
+	}
+
+}
@@ -1,12 +1,15 @@
 package utilities;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map.Entry;
 
 import org.testng.Assert;
 
+import base.FormFill;
+import base.FormSchema;
 import base.TestBase;
 
 public class WebForm extends TestBase {
@@ -18,8 +21,22 @@ public class WebForm extends TestBase {
 		String tagName = "";
 
 		String[] testData = commonUtility.flatten(formData);
+		// Text-like fields in one call, the others are typed natively below
+		List<FormFill.Outcome> outcomes = FormFill.fill(base.getDriver(), Arrays.asList(FIELDS),
+				Arrays.asList(testData).subList(0, FIELDS.length));
+		// Kinds of the fields left, as read on first sight of the screen
+		FormSchema schema = outcomes.contains(FormFill.Outcome.NATIVE) ? FormSchema.of(base.getDriver(), FIELDS)
+				: null;
 		for (int i = 0; i <= FIELDS.length - 1; i++) {
-			tagName = base.getTagName(FIELDS[i]);
+			if (outcomes.get(i) == FormFill.Outcome.FILLED) {
+				System.out.println("Field  :: " + FIELDS[i] + "   Formdata :: " + testData[i] + "   (batch)");
+				continue;
+			}
+			if (schema != null && schema.get(i).isPresent()) {
+				tagName = schema.get(i).getKind();
+			} else {
+				tagName = base.getTagName(FIELDS[i]);
+			}
 			System.out.println("Field  :: " + FIELDS[i] + "   Formdata :: " + testData[i]);
 			if (!tagName.equals("NotFound")) {
 				inputData(FIELDS[i], tagName, testData[i]);
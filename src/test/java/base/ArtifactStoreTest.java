@@ -0,0 +1,71 @@
+package base;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotEquals;
+import static org.testng.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.zip.GZIPInputStream;
+
+import org.apache.commons.io.IOUtils;
+import org.testng.annotations.Test;
+
+/**
+ * Screenshots and page sources of {@link ArtifactStore} are named by the
+ * SHA-256 of their content and written once per content
+ */
+public class ArtifactStoreTest {
+
+	// Content no earlier run has stored
+	private static byte[] unique(String label) {
+		return (label + " " + System.nanoTime()).getBytes(StandardCharsets.UTF_8);
+	}
+
+	@Test
+	public void screenshotIsNamedByItsHash() {
+		File file = ArtifactStore.storeScreenshot("abc".getBytes(StandardCharsets.UTF_8));
+
+		assertEquals(file.getName(), "ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad.png");
+		assertEquals(file.getParentFile(), new File(ArtifactStore.getRoot(), "screenshots"));
+	}
+
+	@Test
+	public void sameContentIsOneFile() {
+		byte[] png = unique("screen");
+
+		assertEquals(ArtifactStore.storeScreenshot(png.clone()), ArtifactStore.storeScreenshot(png));
+		assertNotEquals(ArtifactStore.storeScreenshot(unique("other screen")), ArtifactStore.storeScreenshot(png));
+	}
+
+	@Test
+	public void sameScreenshotIsWrittenOnce() throws IOException {
+		byte[] png = unique("screen");
+		File file = ArtifactStore.storeScreenshot(png);
+		assertTrue(ArtifactStore.awaitWritten(10));
+		assertEquals(Files.readAllBytes(file.toPath()), png);
+
+		assertTrue(file.delete());
+		assertEquals(ArtifactStore.storeScreenshot(png), file);
+		assertTrue(ArtifactStore.awaitWritten(10));
+		assertFalse(file.exists(), "Screenshot written twice");
+	}
+
+	@Test
+	public void pageSourceIsGzipped() throws IOException {
+		String source = new String(unique("<html><body>Chef's Special</body></html>"), StandardCharsets.UTF_8);
+		File file = ArtifactStore.storePageSource(source);
+
+		assertTrue(file.getName().endsWith(".html.gz"), file.getName());
+		assertEquals(ArtifactStore.storePageSource(source), file);
+		assertTrue(ArtifactStore.awaitWritten(10));
+		try (InputStream in = new GZIPInputStream(Files.newInputStream(file.toPath()))) {
+			assertEquals(IOUtils.toString(in, StandardCharsets.UTF_8), source);
+		}
+	}
+
+}
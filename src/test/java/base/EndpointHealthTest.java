@@ -0,0 +1,62 @@
+package base;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+import org.testng.annotations.Test;
+
+/**
+ * Which Appium answers count against a device, and that the circuit of one
+ * device leaves the others of the endpoint alone
+ */
+public class EndpointHealthTest {
+
+	@Test
+	public void answersBelow500AreNotFailures() {
+		assertNull(EndpointHealth.deviceFailure(200, "{\"value\":null}"));
+		assertNull(EndpointHealth.deviceFailure(404,
+				"{\"value\":{\"error\":\"no such element\",\"message\":\"not found\"}}"));
+	}
+
+	@Test
+	public void gatewayErrorsAreFailures() {
+		assertEquals(EndpointHealth.deviceFailure(502, ""), "status 502");
+		assertEquals(EndpointHealth.deviceFailure(504, "<html>Gateway Timeout</html>"), "status 504");
+	}
+
+	@Test
+	public void ordinaryWebDriverErrorsAreTheDeviceAnswering() {
+		assertNull(EndpointHealth.deviceFailure(500,
+				"{\"value\":{\"error\":\"stale element reference\",\"message\":\"gone\"}}"));
+		assertNull(EndpointHealth.deviceFailure(500, "{\"sessionId\":\"s\",\"status\":7,\"value\":{}}"));
+		assertNull(EndpointHealth.deviceFailure(500, "{\"sessionId\":\"s\",\"status\":17,\"value\":{}}"));
+	}
+
+	@Test
+	public void unknownErrorsAreFailures() {
+		assertEquals(EndpointHealth.deviceFailure(500,
+				"{\"value\":{\"error\":\"unknown error\",\"message\":\"Could not proxy command to remote server\"}}"),
+				"status 500 (unknown error)");
+		assertEquals(EndpointHealth.deviceFailure(500, "{\"sessionId\":\"s\",\"status\":13,\"value\":{}}"),
+				"status 500");
+		assertEquals(EndpointHealth.deviceFailure(500, "Internal Server Error"), "status 500");
+	}
+
+	@Test
+	public void circuitIsPerDevice() {
+		// An endpoint no scenario uses, under the threshold configured for the run
+		String url = "http://127.0.0.1:1/endpoint-health-test";
+		for (int i = 0; i < 100 && EndpointHealth.isAvailable(url, "emulator-5554"); i++) {
+			EndpointHealth.recordFailure(EndpointHealth.key(url, "emulator-5554"), "status 502");
+		}
+
+		assertFalse(EndpointHealth.isAvailable(url, "emulator-5554"));
+		assertTrue(EndpointHealth.isAvailable(url, "emulator-5556"));
+
+		EndpointHealth.recordSuccess(EndpointHealth.key(url, "emulator-5554"));
+		assertTrue(EndpointHealth.isAvailable(url, "emulator-5554"));
+	}
+
+}
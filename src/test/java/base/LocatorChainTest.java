@@ -0,0 +1,57 @@
+package base;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+
+import org.testng.annotations.Test;
+
+/**
+ * Structural candidates {@link LocatorChain#derive(String)} builds for
+ * generated class names
+ */
+public class LocatorChainTest {
+
+	@Test
+	public void hashedClassIsMatchedByItsPrefix() {
+		assertEquals(LocatorChain.derive("//div[@class='signUp_colorWhite__27Dfm']"),
+				"//div[contains(@class, 'signUp_colorWhite__')]");
+	}
+
+	@Test
+	public void otherClassesAreMatchedByName() {
+		assertEquals(LocatorChain.derive("//button[@class=\"x__1cko_ btn primary\"]"),
+				"//button[contains(@class, 'x__') and contains(concat(' ', normalize-space(@class), ' '), ' btn ')"
+						+ " and contains(concat(' ', normalize-space(@class), ' '), ' primary ')]");
+	}
+
+	@Test
+	public void bemElementIsNotAHash() {
+		assertNull(LocatorChain.derive("//h2[@class='card__title']"));
+		assertNull(LocatorChain.derive("//li[@class='menu__items list']"));
+	}
+
+	@Test
+	public void bemBlockWithModuleHashKeepsTheBlock() {
+		assertEquals(LocatorChain.derive("//span[@class='card__title__a1B2c']"),
+				"//span[contains(@class, 'card__title__')]");
+	}
+
+	@Test
+	public void hashOfAnotherLengthIsNotTaken() {
+		assertNull(LocatorChain.derive("//div[@class='banner__27Dfm9']"));
+		assertNull(LocatorChain.derive("//div[@class='banner__2Df']"));
+	}
+
+	@Test
+	public void everyClassTestIsDerived() {
+		assertEquals(LocatorChain.derive("//div[@class='list__9aZ_q']//a[@class='item__Zz3-x']"),
+				"//div[contains(@class, 'list__')]//a[contains(@class, 'item__')]");
+	}
+
+	@Test
+	public void locatorWithoutClassTestHasNoCandidate() {
+		assertNull(LocatorChain.derive("//button[contains(text(),'Add Card')]"));
+		assertNull(LocatorChain.derive("//input[@name='seatName']"));
+	}
+
+}
@@ -0,0 +1,99 @@
+package base;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+import org.openqa.selenium.By;
+import org.testng.annotations.Test;
+
+/**
+ * XPaths {@link LocatorTemplate} turns into CSS, the ones it keeps as XPath,
+ * and how bound values are quoted
+ */
+public class LocatorTemplateTest {
+
+	@Test
+	public void attributeTestsAreTranslated() {
+		assertEquals(LocatorTemplate.toCss("//input[@name='username']"), "input[name='username']");
+		assertEquals(LocatorTemplate.toCss("//button[@disabled]"), "button[disabled]");
+		assertEquals(LocatorTemplate.toCss("//input[@name='seatName' and starts-with(@id, \"seat\")]"),
+				"input[name='seatName'][id^='seat']");
+		assertEquals(LocatorTemplate.toCss("//div[contains(@class,'tips')][@role='list']"),
+				"div[class*='tips'][role='list']");
+	}
+
+	@Test
+	public void stepsAreTranslated() {
+		assertEquals(LocatorTemplate.toCss("//div[contains(@class,'tips')]/div[@id='x']"),
+				"div[class*='tips'] > div[id='x']");
+		assertEquals(LocatorTemplate.toCss("//ul//*[@data-id='7']"), "ul *[data-id='7']");
+	}
+
+	@Test
+	public void otherXPathsStayXPath() {
+		assertNull(LocatorTemplate.toCss("//div[text()='Home']"));
+		assertNull(LocatorTemplate.toCss("//button[contains(text(),'Add Card')]"));
+		assertNull(LocatorTemplate.toCss("//div[2]"));
+		assertNull(LocatorTemplate.toCss("//div[text()='Roast beef sandwich']/ancestor::div[2]"));
+		assertNull(LocatorTemplate.toCss("//div[@a='1' or @b='2']"));
+		assertNull(LocatorTemplate.toCss("//div[contains(@class,'')]"));
+		assertNull(LocatorTemplate.toCss("/html/body"));
+		assertNull(LocatorTemplate.toCss("(//div)[1]"));
+	}
+
+	@Test
+	public void xpathLiteralPicksAQuoteTheValueDoesNotHave() {
+		assertEquals(LocatorTemplate.xpathLiteral("Firecracker shrimp"), "'Firecracker shrimp'");
+		assertEquals(LocatorTemplate.xpathLiteral("Chef's Special"), "\"Chef's Special\"");
+		assertEquals(LocatorTemplate.xpathLiteral("The \"Big\" one"), "'The \"Big\" one'");
+	}
+
+	@Test
+	public void xpathLiteralConcatenatesMixedQuotes() {
+		assertEquals(LocatorTemplate.xpathLiteral("Chef's \"Big\" Special"),
+				"concat('Chef', \"'\", 's \"Big\" Special')");
+		assertEquals(LocatorTemplate.xpathLiteral("'\""), "concat('', \"'\", '\"')");
+	}
+
+	@Test
+	public void cssLiteralEscapes() {
+		assertEquals(LocatorTemplate.cssLiteral("Chef's Special"), "'Chef\\'s Special'");
+		assertEquals(LocatorTemplate.cssLiteral("The \"Big\" one"), "'The \"Big\" one'");
+		assertEquals(LocatorTemplate.cssLiteral("a\\b"), "'a\\\\b'");
+		assertEquals(LocatorTemplate.cssLiteral("two\nlines"), "'two\\a lines'");
+	}
+
+	@Test
+	public void textTemplateBindsAQuotedXPath() {
+		LocatorTemplate menuItem = LocatorTemplate.of("//div[text()={}]/ancestor::div[2]");
+
+		assertFalse(menuItem.hasCss());
+		assertNull(menuItem.css("Chef's Special"));
+		assertEquals(menuItem.by("Chef's Special"), By.xpath("//div[text()=\"Chef's Special\"]/ancestor::div[2]"));
+	}
+
+	@Test
+	public void attributeTemplateBindsAQuotedCss() {
+		LocatorTemplate input = LocatorTemplate.of("//input[@name={}]");
+
+		assertTrue(input.hasCss());
+		assertEquals(input.xpath("Chef's Special"), "//input[@name=\"Chef's Special\"]");
+		assertEquals(input.by("Chef's Special"), By.cssSelector("input[name='Chef\\'s Special']"));
+	}
+
+	@Test
+	public void emptyValueOfContainsStaysXPath() {
+		LocatorTemplate tips = LocatorTemplate.of("//div[contains(@class,{})]");
+
+		assertEquals(tips.by("tips"), By.cssSelector("div[class*='tips']"));
+		assertEquals(tips.by(""), By.xpath("//div[contains(@class,'')]"));
+	}
+
+	@Test(expectedExceptions = IllegalArgumentException.class)
+	public void valuesMustMatchTheSlots() {
+		LocatorTemplate.of("//div[text()={}]").xpath();
+	}
+
+}
@@ -0,0 +1,38 @@
+package base;
+
+import static org.testng.Assert.assertEquals;
+
+import org.testng.annotations.Test;
+
+/**
+ * Values of recordingPolicy in config.properties {@link RecordingPolicy.Mode}
+ * accepts
+ */
+public class RecordingPolicyTest {
+
+	@Test
+	public void documentedValuesAreParsed() {
+		assertEquals(RecordingPolicy.Mode.parse("always"), RecordingPolicy.Mode.ALWAYS);
+		assertEquals(RecordingPolicy.Mode.parse("onRetry"), RecordingPolicy.Mode.ON_RETRY);
+		assertEquals(RecordingPolicy.Mode.parse("screenshotBuffer"), RecordingPolicy.Mode.SCREENSHOT_BUFFER);
+	}
+
+	@Test
+	public void caseSeparatorsAndSpacesDoNotMatter() {
+		assertEquals(RecordingPolicy.Mode.parse(" ALWAYS "), RecordingPolicy.Mode.ALWAYS);
+		assertEquals(RecordingPolicy.Mode.parse("onretry"), RecordingPolicy.Mode.ON_RETRY);
+		assertEquals(RecordingPolicy.Mode.parse("ON_RETRY"), RecordingPolicy.Mode.ON_RETRY);
+		assertEquals(RecordingPolicy.Mode.parse("screenshot-buffer"), RecordingPolicy.Mode.SCREENSHOT_BUFFER);
+	}
+
+	@Test(expectedExceptions = IllegalArgumentException.class)
+	public void unknownValueFails() {
+		RecordingPolicy.Mode.parse("never");
+	}
+
+	@Test(expectedExceptions = IllegalArgumentException.class)
+	public void emptyValueFails() {
+		RecordingPolicy.Mode.parse(" ");
+	}
+
+}
@@ -1,42 +1,61 @@
 package hooks;
 
+import java.io.File;
 import java.io.IOException;
-import java.io.InputStream;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.util.Map;
 import java.util.Properties;
-import java.util.concurrent.TimeUnit;
 
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
 import org.openqa.selenium.remote.DesiredCapabilities;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.testng.SkipException;
 
 import com.google.common.collect.ImmutableMap;
 
+import base.ArtifactStore;
+import base.Device;
+import base.DevicePool;
+import base.DriverContext;
+import base.EndpointHealth;
+import base.FormFill;
+import base.LocatorChain;
+import base.LocatorProfiler;
+import base.RecordingPolicy;
+import base.RecordingWriter;
+import base.SessionPool;
+import base.SettleEngine;
 import base.TestBase;
+import base.WaitPolicy;
 import cucumber.api.Scenario;
 import cucumber.api.java.After;
+import cucumber.api.java.AfterStep;
 import cucumber.api.java.Before;
-import io.appium.java_client.AppiumDriver;
-import io.appium.java_client.MobileElement;
-import io.appium.java_client.android.AndroidDriver;
-import io.appium.java_client.ios.IOSDriver;
 import io.appium.java_client.remote.IOSMobileCapabilityType;
 import io.appium.java_client.remote.MobileCapabilityType;
 import utilities.CommonUtility;
+import utilities.PropertyReader;
+import utilities.TestDataPartition;
 
 public class Hook extends TestBase {
 
-	public static Properties prop;
+	public Properties prop;
 
-	public static Properties propertyFile;
+	public Properties propertyFile;
 
 	public static Logger log = LoggerFactory.getLogger(Hook.class);
 
-	public static DesiredCapabilities capabilities = new DesiredCapabilities();
-
 	TestBase base;
 
+	// Device leased by this scenario, given back in tearDown
+	Device device;
+
+	// Whether the screen of this scenario is recorded, see RecordingPolicy
+	boolean recording;
+
 	public Hook(TestBase base) {
 		this.base = base;
 	}
@@ -44,13 +63,15 @@ public class Hook extends TestBase {
 	CommonUtility commonUtility = new CommonUtility();
 
 	@Before
-	public void setUp() throws MalformedURLException {
+	public void setUp(Scenario scenario) throws MalformedURLException {
 
 //		PropertyConfigurator.configure(System.getProperty("user.dir") + "/src/test/resources/properties/Log4j.properties");
 //		PropertyConfigurator.configure(Hook.class.getClassLoader().getResourceAsStream("properties/Log4j.properties"));
 
 		prop = loadProperty("properties/config.properties");
 		String loadPropertyFile = prop.getProperty("platformName");
+		DesiredCapabilities capabilities = new DesiredCapabilities();
+		WebDriver driver = null;
 
 		if (loadPropertyFile.toLowerCase().startsWith("android")) {
 			propertyFile = loadProperty("properties/Android_Capabilities.properties");
@@ -66,6 +87,12 @@ public class Hook extends TestBase {
 			capabilities.setCapability(IOSMobileCapabilityType.SAFARI_OPEN_LINKS_IN_BACKGROUND, true);
 			capabilities.setCapability("connectHardwareKeyboard", false);
 
+		} else if (loadPropertyFile.toLowerCase().startsWith("htmlunit")) {
+			// Headless browser in the JVM, no Appium server or device needed
+			propertyFile = loadProperty("properties/HtmlUnit_Capabilities.properties");
+			capabilities.setCapability("userAgent", propertyFile.getProperty("userAgent"));
+			capabilities.setCapability("viewportWidth", propertyFile.getProperty("viewportWidth"));
+			capabilities.setCapability("viewportHeight", propertyFile.getProperty("viewportHeight"));
 		}
 //		capabilities.setCapability(MobileCapabilityType.APPIUM_VERSION, "v1.17.1");
 		capabilities.setCapability(MobileCapabilityType.AUTOMATION_NAME, propertyFile.getProperty("automationName"));
@@ -82,60 +109,133 @@ public class Hook extends TestBase {
 		capabilities.setCapability("autoDismissAlerts", false);
 		capabilities.setCapability("–session-override", true);
 
+		EndpointHealth.configure(Integer.parseInt(prop.getProperty("endpointFailureThreshold", "3")),
+				Integer.parseInt(prop.getProperty("endpointRetrySeconds", "300")),
+				Integer.parseInt(prop.getProperty("endpointProbeTimeout", "5")),
+				Integer.parseInt(prop.getProperty("commandTimeout", "180")));
+		SettleEngine.configure(Long.parseLong(prop.getProperty("settleTimeout", "10000")),
+				Long.parseLong(prop.getProperty("settleQuietMillis", "250")),
+				Long.parseLong(prop.getProperty("settleBusyMillis", "2000")));
+		WaitPolicy.configure(prop);
+		LocatorChain.load(new File(prop.getProperty("healedLocators", "healed-locators.json")));
+		FormFill.setEnabled(Boolean.parseBoolean(prop.getProperty("batchFormFill", "true")));
+		LocatorProfiler.setEnabled(Boolean.parseBoolean(prop.getProperty("locatorProfiling", "false")));
+		ArtifactStore.configure(new File(prop.getProperty("artifactDir", "target/artifacts")),
+				Integer.parseInt(prop.getProperty("artifactMaxFiles", "1000")));
+		RecordingPolicy.configure(prop.getProperty("recordingPolicy", "always"),
+				Integer.parseInt(prop.getProperty("screenshotBufferSteps", "10")));
+		recording = RecordingPolicy.shouldRecord(scenario.getId());
+		try {
+			TestDataPartition.init(prop);
+		} catch (IOException e) {
+			throw new IllegalStateException("Test data not read", e);
+		}
+		DevicePool.init(prop);
+		device = DevicePool.lease();
+		if (device == null) {
+			throw new SkipException("No device with a healthy Appium endpoint is left");
+		}
+		for (Map.Entry<String, Object> capability : device.getCapabilities().entrySet()) {
+			capabilities.setCapability(capability.getKey(), capability.getValue());
+		}
+		System.out.println("Device::: " + device);
+
 		System.out.println("Capabilities::: " + capabilities);
 //		log.info("Capabilities::: " + capabilities);
 
 		try {
-			if (loadPropertyFile.toLowerCase().startsWith("android")) {
-				driver = new AndroidDriver<MobileElement>(new URL(prop.getProperty("URL_Capability")), capabilities);
-			} else if (loadPropertyFile.toLowerCase().startsWith("ios")) {
-				driver = new IOSDriver<MobileElement>(new URL(prop.getProperty("URL_Capability")), capabilities);
-			}
+			URL appiumUrl = new URL(device.getAppiumUrl());
+			SessionPool.setReuseLimit(Integer.parseInt(prop.getProperty("sessionReuseLimit", "10")));
+			SessionPool.setMaxSessions(Integer.parseInt(prop.getProperty("sessionPoolSize", "1")));
+			driver = SessionPool.acquire(appiumUrl, capabilities, sessionPreparer());
+			// Start the next scenario's session while this one runs, if the pool has room
+			SessionPool.warmUp(appiumUrl, capabilities, sessionPreparer());
 		} catch (MalformedURLException e) {
 			e.printStackTrace();
 		} finally {
 //			log.info("Initializing driver ::: " + driver);
 			if (driver != null) {
 //				log.info("SetUp Appium Driver for Device = " + capabilities);
-				base.startRecordingScreen();
-				driver.get(prop.getProperty("APP_URL"));
-				driver.manage().timeouts().implicitlyWait(30, TimeUnit.SECONDS);
+				DriverContext.setDriver(driver);
+				// Recorded on the session of this scenario, once it is the driver of the thread
+				if (recording) {
+					base.startRecordingScreen();
+				}
 			}
 		}
 	}
 
-	public Properties loadProperty(String filePath) {
-		Properties prop = new Properties();
-		try (InputStream input = Hook.class.getClassLoader().getResourceAsStream(filePath)) {
-
-			if (input == null) {
-				System.out.println("Sorry, unable to find config.properties");
-				return prop;
+	/**
+	 * Steps run on a new or reset session before it is handed to a scenario.
+	 * The pool runs them in the background when it warms up a session, so they
+	 * act on the driver given, never on the driver of the thread.
+	 */
+	private SessionPool.Preparer sessionPreparer() {
+		final String appUrl = prop.getProperty("APP_URL");
+		return new SessionPool.Preparer() {
+
+			@Override
+			public void prepare(WebDriver driver) {
+				driver.get(appUrl);
+				WaitPolicy.disableImplicitWait(driver);
 			}
+		};
+	}
 
-			// load a properties file from class path, inside static method
-			prop.load(input);
+	public Properties loadProperty(String filePath) {
+		return PropertyReader.load(filePath);
+	}
 
-		} catch (IOException ex) {
-			ex.printStackTrace();
-		}
-		return prop;
+	@AfterStep
+	public void afterStep() {
+		// Screenshot buffer mode keeps the last steps in memory
+		RecordingPolicy.captureStep(base.getDriver());
 	}
 
 	@After
 	public void tearDown(Scenario scenario) {
-		if (scenario.isFailed()) {
-			base.takeScreenShot(scenario.getName());
-//			base.resetApp();
-		}
-		base.deleteCookies();
 		try {
-			base.stopRecordingScreen(scenario);
-		} catch (Exception e) {
-			// TODO Auto-generated catch block
-			e.printStackTrace();
+			if (scenario.isFailed()) {
+				RecordingPolicy.failed(scenario.getId());
+				for (Map.Entry<String, File> frame : RecordingPolicy.writeBuffer().entrySet()) {
+					scenario.write(ArtifactStore.link(frame.getKey(), frame.getValue()));
+				}
+			}
+			if (scenario.isFailed() && base.getDriver() != null) {
+				try {
+					scenario.write(ArtifactStore.link("Screenshot", base.takeScreenShot(scenario.getName())));
+					if (base.isTouchDevice()) {
+						scenario.write(ArtifactStore.link("Page source", base.savePageSource()));
+					}
+				} catch (WebDriverException e) {
+					// The device may be the reason the scenario failed
+					e.printStackTrace();
+				}
+//				base.resetApp();
+			}
+			if (recording) {
+				try {
+					File video = base.stopRecordingScreen(scenario);
+					if (video != null) {
+						// Written once the session is released, so it may still fail
+						scenario.write(ArtifactStore.link("Screen recording", video));
+						scenario.write("The recording is missing when it could not be fetched, "
+								+ ArtifactStore.link("the note", RecordingWriter.failureNote(video)) + " then says why");
+					}
+				} catch (Exception e) {
+					// TODO Auto-generated catch block
+					e.printStackTrace();
+				}
+			}
+			base.releaseSession();
+		} finally {
+			// The next scenario waits for this device, give it back even when the clean-up fails
+			DevicePool.release(device);
+			device = null;
+			TestDataPartition.release();
+			CommonUtility.setCheckInPlace(null);
+			RecordingPolicy.clear();
 		}
-		base.tearDown();
 
 	}
 
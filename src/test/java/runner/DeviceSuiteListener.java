@@ -0,0 +1,26 @@
+package runner;
+
+import java.util.List;
+
+import org.testng.IAlterSuiteListener;
+import org.testng.xml.XmlSuite;
+
+import base.DevicePool;
+import utilities.PropertyReader;
+
+/**
+ * Runs as many scenarios at the same time as there are devices declared in
+ * config.properties
+ */
+public class DeviceSuiteListener implements IAlterSuiteListener {
+
+	@Override
+	public void alter(List<XmlSuite> suites) {
+		int devices = DevicePool.init(PropertyReader.load("properties/config.properties")).size();
+		for (XmlSuite suite : suites) {
+			suite.setDataProviderThreadCount(devices);
+		}
+		System.out.println("Scenarios run on " + devices + " device(s) in parallel");
+	}
+
+}
@@ -0,0 +1,49 @@
+package runner;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.testng.IRetryAnalyzer;
+import org.testng.ITestResult;
+
+import cucumber.api.testng.PickleEventWrapper;
+import gherkin.events.PickleEvent;
+import utilities.PropertyReader;
+
+/**
+ * Runs a failed scenario again, up to scenarioRetries times (none by default).
+ * With recordingPolicy=onRetry only these runs are recorded.
+ */
+public class ScenarioRetry implements IRetryAnalyzer {
+
+	private static final int RETRIES = Integer
+			.parseInt(PropertyReader.load("properties/config.properties").getProperty("scenarioRetries", "0"));
+
+	// Runs again so far, by scenario location
+	private static final Map<String, AtomicInteger> RETRIED = new ConcurrentHashMap<String, AtomicInteger>();
+
+	@Override
+	public boolean retry(ITestResult result) {
+		if (RETRIES <= 0) {
+			return false;
+		}
+		String scenario = locationOf(result);
+		RETRIED.putIfAbsent(scenario, new AtomicInteger());
+		boolean again = RETRIED.get(scenario).incrementAndGet() <= RETRIES;
+		if (again) {
+			System.out.println("Running again: " + scenario);
+		}
+		return again;
+	}
+
+	private static String locationOf(ITestResult result) {
+		Object[] parameters = result.getParameters();
+		if (parameters.length > 0 && parameters[0] instanceof PickleEventWrapper) {
+			PickleEvent event = ((PickleEventWrapper) parameters[0]).getPickleEvent();
+			return event.uri + ":" + event.pickle.getLocations().get(0).getLine();
+		}
+		return result.getName();
+	}
+
+}
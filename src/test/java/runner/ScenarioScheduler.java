@@ -0,0 +1,137 @@
+package runner;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+
+import cucumber.api.testng.PickleEventWrapper;
+import gherkin.events.PickleEvent;
+
+/**
+ * Orders scenarios longest first, using the durations recorded in the
+ * cucumber.json of an earlier run. Devices pick the next scenario as soon as
+ * they are free, so long scenarios start early and short ones fill the gaps.
+ */
+public class ScenarioScheduler {
+
+	// Expected duration in nanoseconds, keyed by location and by scenario name
+	private final Map<String, Long> byLocation = new HashMap<String, Long>();
+
+	private final Map<String, Long> byName = new HashMap<String, Long>();
+
+	private long defaultDuration;
+
+	/**
+	 * @param history cucumber.json of an earlier run, ignored when it does not
+	 *                exist
+	 */
+	public ScenarioScheduler(File history) {
+		if (history != null && history.isFile()) {
+			try (Reader reader = new InputStreamReader(Files.newInputStream(history.toPath()),
+					StandardCharsets.UTF_8)) {
+				read(new JsonParser().parse(reader));
+			} catch (IOException | JsonParseException | IllegalStateException e) {
+				System.out.println("Scenario durations not read from " + history + " : " + e.getMessage());
+			}
+		}
+
+		long total = 0;
+		for (Long duration : byName.values()) {
+			total += duration;
+		}
+		// Scenarios without history are assumed to take an average time
+		defaultDuration = byName.isEmpty() ? 0 : total / byName.size();
+	}
+
+	/**
+	 * To sort the data provider rows of TestNGCucumberRunner, longest expected
+	 * scenario first
+	 *
+	 * @param scenarios rows of {PickleEventWrapper, CucumberFeatureWrapper}
+	 * @return sorted copy of the rows
+	 */
+	public Object[][] longestFirst(Object[][] scenarios) {
+		List<Object[]> rows = new ArrayList<Object[]>(Arrays.asList(scenarios));
+		// List.sort is stable, scenarios with equal durations keep feature order
+		rows.sort(new Comparator<Object[]>() {
+
+			@Override
+			public int compare(Object[] first, Object[] second) {
+				return Long.compare(expectedDuration(second), expectedDuration(first));
+			}
+		});
+		return rows.toArray(new Object[0][]);
+	}
+
+	/**
+	 * To get the expected duration of a data provider row in nanoseconds
+	 */
+	public long expectedDuration(Object[] row) {
+		PickleEvent pickleEvent = ((PickleEventWrapper) row[0]).getPickleEvent();
+		int line = pickleEvent.pickle.getLocations().get(0).getLine();
+
+		Long duration = byLocation.get(locationKey(pickleEvent.uri, line));
+		if (duration == null) {
+			duration = byName.get(pickleEvent.pickle.getName());
+		}
+		return duration != null ? duration : defaultDuration;
+	}
+
+	private void read(JsonElement report) {
+		for (JsonElement feature : report.getAsJsonArray()) {
+			JsonObject featureObject = feature.getAsJsonObject();
+			String uri = featureObject.get("uri").getAsString();
+			if (!featureObject.has("elements")) {
+				continue;
+			}
+
+			for (JsonElement element : featureObject.getAsJsonArray("elements")) {
+				JsonObject scenario = element.getAsJsonObject();
+				if (!"scenario".equals(scenario.get("type").getAsString())) {
+					continue;
+				}
+				long duration = sum(scenario.getAsJsonArray("before")) + sum(scenario.getAsJsonArray("steps"))
+						+ sum(scenario.getAsJsonArray("after"));
+
+				byLocation.put(locationKey(uri, scenario.get("line").getAsInt()), duration);
+				String name = scenario.get("name").getAsString();
+				Long known = byName.get(name);
+				byName.put(name, known == null ? duration : Math.max(known, duration));
+			}
+		}
+	}
+
+	private static long sum(JsonArray steps) {
+		long total = 0;
+		if (steps == null) {
+			return total;
+		}
+		for (JsonElement step : steps) {
+			JsonObject result = step.getAsJsonObject().getAsJsonObject("result");
+			if (result != null && result.has("duration")) {
+				total += result.get("duration").getAsLong();
+			}
+		}
+		return total;
+	}
+
+	private static String locationKey(String uri, int line) {
+		return uri.replaceFirst("^classpath:", "") + ":" + line;
+	}
+
+}
@@ -0,0 +1,121 @@
+package runner;
+
+import static org.testng.Assert.assertEquals;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collections;
+
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import cucumber.api.testng.PickleEventWrapper;
+import gherkin.events.PickleEvent;
+import gherkin.pickles.Pickle;
+import gherkin.pickles.PickleLocation;
+import gherkin.pickles.PickleStep;
+import gherkin.pickles.PickleTag;
+
+/**
+ * Order {@link ScenarioScheduler#longestFirst(Object[][])} gives the data
+ * provider rows, from the durations of an earlier run
+ */
+public class ScenarioSchedulerTest {
+
+	private static final String FEATURE = "classpath:features/Order.feature";
+
+	// Durations in nanoseconds: Payment 30, Login 10 + 5 in its hooks, Pickup 20
+	private static final String HISTORY = "[{\"uri\": \"" + FEATURE + "\", \"elements\": ["
+			+ "{\"type\": \"background\", \"line\": 2, \"name\": \"\", \"steps\": [" + step(99) + "]},"
+			+ "{\"type\": \"scenario\", \"line\": 5, \"name\": \"Login\", \"before\": [" + step(3) + "],"
+			+ " \"steps\": [" + step(4) + ", " + step(6) + "], \"after\": [" + step(2) + "]},"
+			+ "{\"type\": \"scenario\", \"line\": 10, \"name\": \"Payment\", \"steps\": [" + step(30) + "]},"
+			+ "{\"type\": \"scenario\", \"line\": 15, \"name\": \"Pickup\", \"steps\": [" + step(20)
+			+ ", {\"result\": {\"status\": \"skipped\"}}]}]},"
+			+ "{\"uri\": \"features/Empty.feature\"}]";
+
+	private File history;
+
+	private static String step(long duration) {
+		return "{\"result\": {\"status\": \"passed\", \"duration\": " + duration + "}}";
+	}
+
+	private static Object[] row(String name, int line) {
+		Pickle pickle = new Pickle(name, "en", Collections.<PickleStep> emptyList(),
+				Collections.<PickleTag> emptyList(), Collections.singletonList(new PickleLocation(line, 3)));
+		final PickleEvent event = new PickleEvent(FEATURE, pickle);
+		PickleEventWrapper wrapper = new PickleEventWrapper() {
+
+			@Override
+			public PickleEvent getPickleEvent() {
+				return event;
+			}
+
+			@Override
+			public String toString() {
+				return event.pickle.getName();
+			}
+		};
+		return new Object[] { wrapper, null };
+	}
+
+	private static String names(Object[][] rows) {
+		StringBuilder names = new StringBuilder();
+		for (Object[] row : rows) {
+			names.append(names.length() > 0 ? ", " : "").append(row[0]);
+		}
+		return names.toString();
+	}
+
+	@BeforeClass
+	public void writeHistory() throws IOException {
+		File directory = new File("target/scenario-scheduler-test");
+		directory.mkdirs();
+		history = new File(directory, "cucumber.json");
+		Files.write(history.toPath(), HISTORY.getBytes(StandardCharsets.UTF_8));
+	}
+
+	@Test
+	public void scenarioDurationIncludesItsHooks() {
+		ScenarioScheduler scheduler = new ScenarioScheduler(history);
+
+		assertEquals(scheduler.expectedDuration(row("Login", 5)), 15);
+		assertEquals(scheduler.expectedDuration(row("Pickup", 15)), 20);
+	}
+
+	@Test
+	public void longestScenarioComesFirst() {
+		Object[][] rows = { row("Login", 5), row("Payment", 10), row("Pickup", 15) };
+
+		assertEquals(names(new ScenarioScheduler(history).longestFirst(rows)), "Payment, Pickup, Login");
+		assertEquals(names(rows), "Login, Payment, Pickup", "Rows of the caller reordered");
+	}
+
+	@Test
+	public void movedScenarioIsFoundByName() {
+		Object[][] rows = { row("Login", 5), row("Payment", 40) };
+
+		assertEquals(names(new ScenarioScheduler(history).longestFirst(rows)), "Payment, Login");
+	}
+
+	@Test
+	public void newScenarioTakesTheAverage() {
+		ScenarioScheduler scheduler = new ScenarioScheduler(history);
+		Object[][] rows = { row("Login", 5), row("New", 20), row("Payment", 10) };
+
+		assertEquals(scheduler.expectedDuration(row("New", 20)), (15 + 30 + 20) / 3);
+		assertEquals(names(scheduler.longestFirst(rows)), "Payment, New, Login");
+	}
+
+	@Test
+	public void withoutHistoryFeatureOrderIsKept() {
+		Object[][] rows = { row("Login", 5), row("Payment", 10), row("Pickup", 15) };
+
+		assertEquals(names(new ScenarioScheduler(new File("target/no-such-cucumber.json")).longestFirst(rows)),
+				"Login, Payment, Pickup");
+		assertEquals(names(new ScenarioScheduler(null).longestFirst(rows)), "Login, Payment, Pickup");
+	}
+
+}
@@ -0,0 +1,177 @@
+package runner;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.commons.io.FileUtils;
+
+import com.google.gson.GsonBuilder;
+
+import base.StepMetrics;
+import cucumber.api.HookTestStep;
+import cucumber.api.PickleStepTestStep;
+import cucumber.api.TestStep;
+import cucumber.api.event.ConcurrentEventListener;
+import cucumber.api.event.EventHandler;
+import cucumber.api.event.EventPublisher;
+import cucumber.api.event.TestRunFinished;
+import cucumber.api.event.TestStepFinished;
+import cucumber.api.event.TestStepStarted;
+
+/**
+ * Cucumber plugin writing, per step definition and hook, the p50, p95 and max
+ * of the wall time of its steps and of what the time went to: TestBase.delay,
+ * explicit waits, lookups outside them and driver commands (see
+ * {@link StepMetrics}). Slow steps whose time is neither waits nor commands
+ * point at the framework, slow commands at the device or Appium, long waits at
+ * the app.
+ *
+ * <pre>
+ * plugin = { "runner.StepMetricsPlugin:target/step-metrics.json" }
+ * </pre>
+ *
+ * It listens concurrently, so each step is measured on the thread that runs it.
+ */
+public class StepMetricsPlugin implements ConcurrentEventListener {
+
+	private final File file;
+
+	// Samples by step definition
+	private final Map<String, List<long[]>> samples = new ConcurrentHashMap<String, List<long[]>>();
+
+	// Pattern of each step definition
+	private final Map<String, String> patterns = new ConcurrentHashMap<String, String>();
+
+	// Order of the values of a sample
+	private static final String[] METRICS = { "wallMillis", "delayMillis", "explicitWaitMillis", "lookupMillis",
+			"commands", "commandMillis" };
+
+	public StepMetricsPlugin(File file) {
+		this.file = file;
+	}
+
+	@Override
+	public void setEventPublisher(EventPublisher publisher) {
+		publisher.registerHandlerFor(TestStepStarted.class, new EventHandler<TestStepStarted>() {
+
+			@Override
+			public void receive(TestStepStarted event) {
+				StepMetrics.reset();
+			}
+		});
+		publisher.registerHandlerFor(TestStepFinished.class, new EventHandler<TestStepFinished>() {
+
+			@Override
+			public void receive(TestStepFinished event) {
+				finished(event);
+			}
+		});
+		publisher.registerHandlerFor(TestRunFinished.class, new EventHandler<TestRunFinished>() {
+
+			@Override
+			public void receive(TestRunFinished event) {
+				write();
+			}
+		});
+	}
+
+	private void finished(TestStepFinished event) {
+		String key = keyOf(event.testStep);
+		if (key == null) {
+			return;
+		}
+		StepMetrics.Counters counters = StepMetrics.current();
+		Long duration = event.result.getDuration();
+		long[] sample = { duration != null ? duration / 1_000_000 : 0, counters.getDelayMillis(),
+				counters.getExplicitWaitMillis(), counters.getLookupMillis(), counters.getCommands(),
+				counters.getCommandMillis() };
+		samples.computeIfAbsent(key, k -> Collections.synchronizedList(new ArrayList<long[]>())).add(sample);
+		StepMetrics.reset();
+	}
+
+	// Step definition of a step, or hook; null for an undefined step
+	private String keyOf(TestStep step) {
+		if (step.getCodeLocation() == null) {
+			return null;
+		}
+		if (step instanceof PickleStepTestStep) {
+			patterns.putIfAbsent(step.getCodeLocation(), ((PickleStepTestStep) step).getPattern());
+			return step.getCodeLocation();
+		} else if (step instanceof HookTestStep) {
+			return ((HookTestStep) step).getHookType() + " " + step.getCodeLocation();
+		}
+		return step.getCodeLocation();
+	}
+
+	private void write() {
+		List<Map<String, Object>> rows = new ArrayList<Map<String, Object>>();
+		for (Map.Entry<String, List<long[]>> entry : samples.entrySet()) {
+			List<long[]> steps;
+			synchronized (entry.getValue()) {
+				steps = new ArrayList<long[]>(entry.getValue());
+			}
+			Map<String, Object> row = new LinkedHashMap<String, Object>();
+			row.put("stepDefinition", entry.getKey());
+			if (patterns.containsKey(entry.getKey())) {
+				row.put("pattern", patterns.get(entry.getKey()));
+			}
+			row.put("count", steps.size());
+			for (int metric = 0; metric < METRICS.length; metric++) {
+				row.put(METRICS[metric], summary(steps, metric));
+			}
+			rows.add(row);
+		}
+		Collections.sort(rows, (a, b) -> Long.compare(total(b), total(a)));
+
+		Map<String, Object> report = new LinkedHashMap<String, Object>();
+		report.put("generated", new Date().toString());
+		report.put("stepDefinitions", rows);
+		try {
+			FileUtils.writeStringToFile(file,
+					new GsonBuilder().setPrettyPrinting().disableHtmlEscaping().create().toJson(report),
+					StandardCharsets.UTF_8);
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private static long total(Map<String, Object> row) {
+		return ((Map<String, Long>) row.get("wallMillis")).get("total");
+	}
+
+	// p50, p95 (nearest rank), max and total of one metric
+	private static Map<String, Long> summary(List<long[]> steps, int metric) {
+		long[] values = new long[steps.size()];
+		long total = 0;
+		for (int i = 0; i < values.length; i++) {
+			values[i] = steps.get(i)[metric];
+			total += values[i];
+		}
+		Arrays.sort(values);
+		Map<String, Long> summary = new LinkedHashMap<String, Long>();
+		summary.put("p50", percentile(values, 50));
+		summary.put("p95", percentile(values, 95));
+		summary.put("max", values.length == 0 ? 0 : values[values.length - 1]);
+		summary.put("total", total);
+		return summary;
+	}
+
+	private static long percentile(long[] sorted, int percent) {
+		if (sorted.length == 0) {
+			return 0;
+		}
+		int rank = (int) Math.ceil(percent / 100.0 * sorted.length);
+		return sorted[Math.max(0, rank - 1)];
+	}
+
+}
@@ -1,40 +1,67 @@
 package runner;
 
+import java.io.File;
+
 import org.testng.annotations.AfterClass;
 import org.testng.annotations.BeforeClass;
 import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
 
+import base.ArtifactStore;
+import base.LocatorChain;
+import base.LocatorProfiler;
+import base.SessionPool;
+import base.WaitPolicy;
 import cucumber.api.CucumberOptions;
 import cucumber.api.testng.CucumberFeatureWrapper;
 import cucumber.api.testng.PickleEventWrapper;
 import cucumber.api.testng.TestNGCucumberRunner;
+import standin.StandInSite;
+import utilities.PropertyReader;
+import utilities.TestDataRegistry;
 
 @CucumberOptions(features = "classpath:features", plugin = { "pretty", "json:target/cucumber.json",
-		"html:target/site/cucumber-pretty" }, monochrome = true, strict = false, dryRun = false, glue = {
-				"stepDefinitions", "hooks" }, tags = { "@RegressionTest", "~@Ignored" })
+		"runner.StepMetricsPlugin:target/step-metrics.json", "html:target/site/cucumber-pretty" }, monochrome = true,
+		strict = false, dryRun = false, glue = { "stepDefinitions", "hooks" }, tags = { "@RegressionTest",
+				"~@Ignored" })
 public class TestRunner {
 
 	private TestNGCucumberRunner testNGCucumberRunner;
 
 	@BeforeClass(alwaysRun = true)
 	public void setUpClass() throws Exception {
+		// Serve the stand-in site when APP_URL points at localhost
+		StandInSite.startIfLocal(PropertyReader.load("properties/config.properties").getProperty("APP_URL"));
+		// Parse the test data once, before the scenarios ask for it in parallel
+		TestDataRegistry.load();
 		testNGCucumberRunner = new TestNGCucumberRunner(this.getClass());
 	}
 
-	@Test(groups = "Cucumber", description = "Runs Cucumber Feature", dataProvider = "scenarios")
+	@Test(groups = "Cucumber", description = "Runs Cucumber Feature", dataProvider = "scenarios", retryAnalyzer = ScenarioRetry.class)
 	public void scenario(PickleEventWrapper pickleEvent, CucumberFeatureWrapper cucumberFeature) throws Throwable {
 		testNGCucumberRunner.runScenario(pickleEvent.getPickleEvent());
 	}
 
-	@DataProvider
+	@DataProvider(parallel = true)
 	public Object[][] scenarios() {
-		return testNGCucumberRunner.provideScenarios();
+		// Longest scenarios first, so the devices finish at about the same time
+		String history = PropertyReader.load("properties/config.properties").getProperty("durationHistory",
+				"target/cucumber.json");
+		return new ScenarioScheduler(new File(history)).longestFirst(testNGCucumberRunner.provideScenarios());
 	}
 
 	@AfterClass(alwaysRun = true)
 	public void tearDownClass() throws Exception {
 		testNGCucumberRunner.finish();
+		SessionPool.shutdown();
+		if (!ArtifactStore.awaitWritten(120)) {
+			System.out.println("Artifacts still being written at the end of the run");
+		}
+		ArtifactStore.applyRetention();
+		WaitPolicy.writeReport(new File("target/wait-times.json"));
+		LocatorChain.save();
+		LocatorProfiler.writeReport(new File("target/locator-profile.json"));
+		StandInSite.stop();
 	}
 
 }
@@ -0,0 +1,161 @@
+package standin;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+import org.apache.commons.io.IOUtils;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Local stand-in for the OneDine web app. It serves the fixture pages under
+ * src/test/resources/standin, which use the same markup the page objects
+ * locate, so that scenarios run offline and always see the same menu.
+ *
+ * <pre>
+ * /              spot code        /order         menu
+ * /check-in      check-in         /item?name=    menu item and modifiers
+ * /sign-in       sign in          /my-bag        My Bag
+ * /spot-number   spot number      /checkout      pay now or pay later
+ * /pickup-time   pickup/delivery  /payment/tip   card and tip
+ * /guest-spot    walk-up guest    /confirmation  payment confirmation
+ * </pre>
+ *
+ * The flow follows the spot code: ...CU curbside, ...OL online, ...WU walk-up.
+ */
+public final class StandInSite {
+
+	private static final String ROOT = "standin/";
+
+	private static final Map<String, String> CONTENT_TYPES = new HashMap<String, String>();
+
+	static {
+		CONTENT_TYPES.put("html", "text/html; charset=UTF-8");
+		CONTENT_TYPES.put("js", "application/javascript; charset=UTF-8");
+		CONTENT_TYPES.put("css", "text/css; charset=UTF-8");
+		CONTENT_TYPES.put("svg", "image/svg+xml");
+	}
+
+	private static HttpServer server;
+
+	private static ExecutorService executor;
+
+	private StandInSite() {
+	}
+
+	/**
+	 * To start the site when the app URL points at this machine
+	 *
+	 * @param appUrl APP_URL of config.properties
+	 * @return true when the site is running
+	 */
+	public static synchronized boolean startIfLocal(String appUrl) {
+		URI uri = URI.create(appUrl);
+		String host = uri.getHost();
+		// 10.0.2.2 is this machine as seen from an Android emulator
+		if (!"localhost".equalsIgnoreCase(host) && !"127.0.0.1".equals(host) && !"10.0.2.2".equals(host)) {
+			return false;
+		}
+		start(uri.getPort() > 0 ? uri.getPort() : 80);
+		return true;
+	}
+
+	/**
+	 * To serve the site on a port of every interface, so that devices and
+	 * emulators can reach it as well
+	 *
+	 * @param port HTTP port
+	 */
+	public static synchronized void start(int port) {
+		if (server != null) {
+			return;
+		}
+		try {
+			server = HttpServer.create(new InetSocketAddress(port), 0);
+		} catch (IOException e) {
+			throw new IllegalStateException("Stand-in site could not listen on port " + port, e);
+		}
+		executor = Executors.newCachedThreadPool(new ThreadFactory() {
+
+			@Override
+			public Thread newThread(Runnable runnable) {
+				Thread thread = new Thread(runnable, "stand-in-site");
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+		server.setExecutor(executor);
+		server.createContext("/", new PageHandler());
+		server.start();
+		System.out.println("Stand-in site running on port " + port);
+	}
+
+	public static synchronized void stop() {
+		if (server != null) {
+			server.stop(0);
+			executor.shutdownNow();
+			server = null;
+			executor = null;
+		}
+	}
+
+	private static class PageHandler implements HttpHandler {
+
+		@Override
+		public void handle(HttpExchange exchange) throws IOException {
+			try {
+				String resource = resourceOf(exchange.getRequestURI().getPath());
+				InputStream input = StandInSite.class.getClassLoader().getResourceAsStream(ROOT + resource);
+				if (input == null) {
+					send(exchange, 404, "text/plain; charset=UTF-8", ("Not found: " + resource).getBytes("UTF-8"));
+					return;
+				}
+				byte[] body;
+				try {
+					body = IOUtils.toByteArray(input);
+				} finally {
+					input.close();
+				}
+				String extension = resource.substring(resource.lastIndexOf('.') + 1);
+				send(exchange, 200, CONTENT_TYPES.get(extension), body);
+			} finally {
+				exchange.close();
+			}
+		}
+
+		/**
+		 * Screens are served from their path, /payment/tip from payment-tip.html
+		 */
+		private String resourceOf(String path) {
+			String name = path.replaceAll("^/+|/+$", "");
+			if (name.isEmpty()) {
+				return "index.html";
+			}
+			if (name.contains("..")) {
+				return "not-found";
+			}
+			return name.contains(".") ? name : name.replace('/', '-') + ".html";
+		}
+
+		private void send(HttpExchange exchange, int status, String contentType, byte[] body) throws IOException {
+			exchange.getResponseHeaders().set("Content-Type",
+					contentType != null ? contentType : "application/octet-stream");
+			exchange.getResponseHeaders().set("Cache-Control", "no-store");
+			exchange.sendResponseHeaders(status, body.length);
+			try (OutputStream output = exchange.getResponseBody()) {
+				output.write(body);
+			}
+		}
+	}
+
+}
@@ -0,0 +1,75 @@
+package utilities;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+import org.testng.annotations.Test;
+
+/**
+ * Rows streamed from InputData.xlsx are the rows {@link TestDataRegistry}
+ * loads with the user model
+ */
+public class StreamingSheetReaderTest {
+
+	// Rows the ExcelRows data provider handed to rowOfLoginSheet
+	private static final List<List<String>> PROVIDED = new ArrayList<List<String>>();
+
+	@Test
+	public void everySheetStreamsTheRowsOfTheRegistry() throws IOException {
+		for (String sheet : TestDataRegistry.sheetNames()) {
+			List<List<String>> streamed = new ArrayList<List<String>>();
+			try (StreamingSheetReader rows = StreamingSheetReader.open(sheet)) {
+				while (rows.hasNext()) {
+					streamed.add(Arrays.asList(rows.next()));
+				}
+			}
+			assertEquals(streamed, TestDataRegistry.rows(sheet), sheet);
+		}
+	}
+
+	@Test
+	public void unknownSheetFailsOnFirstRead() throws IOException {
+		try (StreamingSheetReader rows = StreamingSheetReader.open("No such sheet")) {
+			rows.hasNext();
+			throw new AssertionError("A missing sheet was read");
+		} catch (IllegalArgumentException e) {
+			assertTrue(e.getMessage().contains("No such sheet"), e.getMessage());
+		}
+	}
+
+	@Test
+	public void providerStopsAfterTheLastRow() throws Exception {
+		Method method = getClass().getMethod("rowOfLoginSheet", String[].class);
+		Iterator<Object[]> rows = StaticDataProvider.getExcelRows(method);
+		int count = 0;
+		while (rows.hasNext()) {
+			rows.next();
+			count++;
+		}
+		assertEquals(count, TestDataRegistry.rows("Login_Success").size());
+		assertFalse(rows.hasNext(), "Rows after the end");
+	}
+
+	@Test(dataProvider = "ExcelRows", dataProviderClass = StaticDataProvider.class)
+	@ExcelSheet("Login_Success")
+	public void rowOfLoginSheet(String[] row) throws IOException {
+		synchronized (PROVIDED) {
+			PROVIDED.add(Arrays.asList(row));
+		}
+		assertTrue(TestDataRegistry.rows("Login_Success").contains(Arrays.asList(row)), Arrays.toString(row));
+	}
+
+	@Test(dependsOnMethods = "rowOfLoginSheet")
+	public void providerGaveEveryRowOnce() throws IOException {
+		assertEquals(PROVIDED, TestDataRegistry.rows("Login_Success"));
+	}
+
+}
@@ -0,0 +1,103 @@
+/*
+ * Shared state and helpers of the OneDine stand-in site. The state of an
+ * order lives in sessionStorage, which the session pool clears between
+ * scenarios.
+ */
+var OD = {
+
+	// Flow type by the last two letters of the spot code
+	places : {
+		CU : "Paisano's Curbside",
+		OL : "Paisano's Online Ordering",
+		WU : "Paisano's Walk-up"
+	},
+
+	// Modifier groups of the menu items, as [group, options...]
+	modifiers : {
+		'Cheese ravioli with marinara and chicken' : [
+				[ 'Pasta', 'Fettuccini', 'Penne', 'Spaghetti' ],
+				[ 'Protein', 'Sausage', 'Chicken', 'Meatballs' ],
+				[ 'Sauce', 'Alfredo', 'Marinara', 'Pesto' ] ],
+		'Billionaire Bacon Burger' : [
+				[ 'Patty', 'Sub Beyond', 'Beef Patty' ],
+				[ 'Cheese', 'Sub Gouda - Cheddar', 'American' ],
+				[ 'Sauce', 'No BBQ - Sand', 'BBQ' ] ]
+	},
+
+	get : function(key) {
+		return window.sessionStorage.getItem(key);
+	},
+
+	set : function(key, value) {
+		window.sessionStorage.setItem(key, value);
+	},
+
+	go : function(path) {
+		window.location.href = path;
+	},
+
+	flow : function() {
+		var code = OD.get('spotCode') || '';
+		return code.substring(code.length - 2).toUpperCase();
+	},
+
+	place : function() {
+		return OD.places[OD.flow()] || 'OneDine Test Kitchen';
+	},
+
+	// Screen that follows the sign in, by flow type
+	afterSignIn : function() {
+		var next = {
+			CU : '/spot-number',
+			OL : '/pickup-time',
+			WU : '/guest-spot'
+		};
+		return next[OD.flow()] || '/spot-number';
+	},
+
+	bag : function() {
+		return JSON.parse(OD.get('bag') || '[]');
+	},
+
+	addToBag : function(item) {
+		var bag = OD.bag();
+		bag.push(item);
+		OD.set('bag', JSON.stringify(bag));
+	},
+
+	show : function(id, visible) {
+		document.getElementById(id).style.display = visible ? '' : 'none';
+	},
+
+	// Replaces the messages of an error container with one div.error each
+	showErrors : function(id, messages) {
+		var container = document.getElementById(id);
+		container.innerHTML = '';
+		for (var i = 0; i < messages.length; i++) {
+			var message = document.createElement('div');
+			message.className = 'error';
+			message.appendChild(document.createTextNode(messages[i]));
+			container.appendChild(message);
+		}
+		return messages.length === 0;
+	},
+
+	value : function(name) {
+		var field = document.querySelector('[name="' + name + '"]');
+		return field ? field.value.replace(/^\s+|\s+$/g, '') : '';
+	},
+
+	// Fills every element marked with data-place with the checked-in place
+	init : function() {
+		var nodes = document.querySelectorAll('[data-place]');
+		for (var i = 0; i < nodes.length; i++) {
+			nodes[i].textContent = OD.place();
+		}
+		var tabs = document.querySelectorAll('[data-tab]');
+		for (var j = 0; j < tabs.length; j++) {
+			tabs[j].onclick = function() {
+				OD.go(this.getAttribute('data-tab'));
+			};
+		}
+	}
+};